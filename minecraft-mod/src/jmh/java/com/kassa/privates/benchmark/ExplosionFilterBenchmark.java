@@ -0,0 +1,122 @@
+package com.kassa.privates.benchmark;
+
+import com.kassa.privates.config.PrivatesConfig;
+import com.kassa.privates.data.DataStorage;
+import com.kassa.privates.data.PrivateManager;
+import com.kassa.privates.data.PrivateZone;
+import com.kassa.privates.simulation.ZoneFixtures;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Filtering an explosion's block list (a TNT-sized sphere, about 250 blocks) with
+ * {@link PrivateManager#removeProtectedPositions} against one lookup per block.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4G")
+public class ExplosionFilterBenchmark {
+    private static final int EXPLOSIONS = 256;
+    private static final int RADIUS = 4;
+
+    @Param({"10000", "100000"})
+    public int zoneCount;
+
+    @Param({"UNIFORM", "CLUSTERED"})
+    public ZoneFixtures.Layout layout;
+
+    private Path dataDir;
+    private PrivateManager manager;
+    private Identifier[] worldIds;
+    private int[][] centers;
+    private List<List<BlockPos>> explosions;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        dataDir = Files.createTempDirectory("privates-bench");
+        PrivatesConfig config = new PrivatesConfig();
+        DataStorage storage = new DataStorage(dataDir, config);
+        List<PrivateZone> zones = ZoneFixtures.generate(zoneCount, layout);
+        storage.saveZones(zones);
+        manager = new PrivateManager(storage, config);
+        manager.awaitReady();
+
+        worldIds = new Identifier[ZoneFixtures.WORLDS.length];
+        for (int i = 0; i < worldIds.length; i++) {
+            worldIds[i] = Identifier.of(ZoneFixtures.WORLDS[i]);
+        }
+
+        centers = ZoneFixtures.probes(zones, EXPLOSIONS);
+        explosions = new ArrayList<>(EXPLOSIONS);
+        for (int[] center : centers) {
+            List<BlockPos> blocks = new ArrayList<>();
+            for (int dx = -RADIUS; dx <= RADIUS; dx++) {
+                for (int dy = -RADIUS; dy <= RADIUS; dy++) {
+                    for (int dz = -RADIUS; dz <= RADIUS; dz++) {
+                        if (dx * dx + dy * dy + dz * dz <= RADIUS * RADIUS) {
+                            blocks.add(new BlockPos(center[1] + dx, center[2] + dy, center[3] + dz));
+                        }
+                    }
+                }
+            }
+            explosions.add(blocks);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        manager.shutdown();
+        try (Stream<Path> paths = Files.walk(dataDir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private int nextExplosion() {
+        next = (next + 1) & (EXPLOSIONS - 1);
+        return next;
+    }
+
+    @Benchmark
+    public int bulkFilter() {
+        int index = nextExplosion();
+        List<BlockPos> blocks = new ArrayList<>(explosions.get(index));
+        return manager.removeProtectedPositions(worldIds[centers[index][0]], blocks);
+    }
+
+    @Benchmark
+    public int perBlockLookup() {
+        int index = nextExplosion();
+        Identifier worldId = worldIds[centers[index][0]];
+        List<BlockPos> blocks = new ArrayList<>(explosions.get(index));
+        int before = blocks.size();
+        blocks.removeIf(pos -> manager.getZoneAtPosition(pos, worldId) != null);
+        return before - blocks.size();
+    }
+}
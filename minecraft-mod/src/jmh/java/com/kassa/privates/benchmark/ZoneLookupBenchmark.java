@@ -0,0 +1,109 @@
+package com.kassa.privates.benchmark;
+
+import com.kassa.privates.data.PrivateZone;
+import com.kassa.privates.data.ZoneSnapshot;
+import com.kassa.privates.simulation.ZoneFixtures;
+import net.minecraft.util.Identifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read paths behind the protection callbacks and zone creation. {@code pointLookup} is what
+ * {@code PrivateManager.getZoneAtPosition} does, {@code overlapCheck} and {@code overlapList}
+ * back zone creation, and {@code ownerListing} backs {@code /private list}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4G")
+public class ZoneLookupBenchmark {
+    private static final int PROBES = 4096;
+    private static final int OVERLAP_SIZE = 16;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int zoneCount;
+
+    @Param({"UNIFORM", "CLUSTERED"})
+    public ZoneFixtures.Layout layout;
+
+    private List<PrivateZone> zones;
+    private ZoneSnapshot snapshot;
+    private Identifier[] worldIds;
+    private int[][] probes;
+    private String[] owners;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        zones = ZoneFixtures.generate(zoneCount, layout);
+        snapshot = ZoneSnapshot.of(zones, 1);
+        probes = ZoneFixtures.probes(zones, PROBES);
+
+        worldIds = new Identifier[ZoneFixtures.WORLDS.length];
+        for (int i = 0; i < worldIds.length; i++) {
+            worldIds[i] = Identifier.of(ZoneFixtures.WORLDS[i]);
+        }
+
+        owners = new String[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            owners[i] = zones.get((int) ((long) i * zones.size() / PROBES)).getOwnerUuid();
+        }
+    }
+
+    private int nextProbe() {
+        next = (next + 1) & (PROBES - 1);
+        return next;
+    }
+
+    @Benchmark
+    public PrivateZone pointLookup() {
+        int[] probe = probes[nextProbe()];
+        return snapshot.getZoneAt(worldIds[probe[0]], probe[1], probe[2], probe[3]);
+    }
+
+    @Benchmark
+    public boolean overlapCheck() {
+        int[] probe = probes[nextProbe()];
+        return snapshot.intersectsAny(worldIds[probe[0]], probe[1], probe[2], probe[3],
+            probe[1] + OVERLAP_SIZE, probe[2] + OVERLAP_SIZE, probe[3] + OVERLAP_SIZE);
+    }
+
+    @Benchmark
+    public List<PrivateZone> overlapList() {
+        int[] probe = probes[nextProbe()];
+        return snapshot.findIntersecting(worldIds[probe[0]], probe[1], probe[2], probe[3],
+            probe[1] + OVERLAP_SIZE, probe[2] + OVERLAP_SIZE, probe[3] + OVERLAP_SIZE);
+    }
+
+    @Benchmark
+    public List<PrivateZone> ownerListing() {
+        return snapshot.getByOwner(owners[nextProbe()]);
+    }
+
+    @Benchmark
+    public boolean containsBlock() {
+        int index = nextProbe();
+        int[] probe = probes[index];
+        return zones.get(index % zones.size()).containsBlock(probe[1], probe[2], probe[3]);
+    }
+
+    @Benchmark
+    public boolean intersectsWith() {
+        int index = nextProbe();
+        return zones.get(index % zones.size()).intersectsWith(zones.get((index * 31 + 7) % zones.size()));
+    }
+}
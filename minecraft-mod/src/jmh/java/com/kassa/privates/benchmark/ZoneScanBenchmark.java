@@ -0,0 +1,105 @@
+package com.kassa.privates.benchmark;
+
+import com.kassa.privates.data.PrivateZone;
+import com.kassa.privates.data.ZoneCell;
+import com.kassa.privates.simulation.ZoneFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leaf-level candidate scan: the packed {@link ZoneCell} kernel against the previous loop over
+ * {@code PrivateZone[]} calling {@code containsBlock}/{@code intersects}. Candidates are
+ * shuffled so their objects are spread over the heap like zones loaded at different times.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ZoneScanBenchmark {
+    private static final int PROBES = 4096;
+    private static final int CELLS = 1024;
+
+    @Param({"2", "8", "32", "128"})
+    public int cellSize;
+
+    private PrivateZone[][] objectCells;
+    private ZoneCell[] packedCells;
+    private int[][] probes;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<PrivateZone> zones = new ArrayList<>(ZoneFixtures.generate(cellSize * CELLS, ZoneFixtures.Layout.CLUSTERED));
+        Collections.shuffle(zones, new Random(ZoneFixtures.SEED));
+        probes = ZoneFixtures.probes(zones, PROBES);
+
+        objectCells = new PrivateZone[CELLS][];
+        packedCells = new ZoneCell[CELLS];
+        for (int c = 0; c < CELLS; c++) {
+            List<PrivateZone> cell = zones.subList(c * cellSize, (c + 1) * cellSize);
+            objectCells[c] = cell.toArray(new PrivateZone[0]);
+            packedCells[c] = ZoneCell.of(cell);
+        }
+    }
+
+    private int nextProbe() {
+        next = (next + 1) & (PROBES - 1);
+        return next;
+    }
+
+    @Benchmark
+    public PrivateZone objectPointScan() {
+        int index = nextProbe();
+        int[] probe = probes[index];
+        for (PrivateZone zone : objectCells[index & (CELLS - 1)]) {
+            if (zone.containsBlock(probe[1], probe[2], probe[3])) {
+                return zone;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public PrivateZone packedPointScan() {
+        int index = nextProbe();
+        int[] probe = probes[index];
+        return packedCells[index & (CELLS - 1)].getZoneAt(probe[1], probe[2], probe[3]);
+    }
+
+    @Benchmark
+    public boolean objectOverlapScan() {
+        int index = nextProbe();
+        int[] probe = probes[index];
+        for (PrivateZone zone : objectCells[index & (CELLS - 1)]) {
+            if (zone.intersects(probe[1], probe[2], probe[3], probe[1] + 15, probe[2] + 15, probe[3] + 15)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean packedOverlapScan() {
+        int index = nextProbe();
+        int[] probe = probes[index];
+        return packedCells[index & (CELLS - 1)].intersectsAny(probe[1], probe[2], probe[3],
+            probe[1] + 15, probe[2] + 15, probe[3] + 15);
+    }
+}
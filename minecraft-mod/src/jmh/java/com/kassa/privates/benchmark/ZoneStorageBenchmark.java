@@ -0,0 +1,77 @@
+package com.kassa.privates.benchmark;
+
+import com.kassa.privates.config.PrivatesConfig;
+import com.kassa.privates.data.DataStorage;
+import com.kassa.privates.data.PrivateZone;
+import com.kassa.privates.simulation.ZoneFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Full JSON snapshot save and load through {@link DataStorage}, using a temporary data
+ * directory and the default config.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4G")
+public class ZoneStorageBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int zoneCount;
+
+    @Param({"UNIFORM", "CLUSTERED"})
+    public ZoneFixtures.Layout layout;
+
+    private Path dataDir;
+    private DataStorage storage;
+    private List<PrivateZone> zones;
+
+    @Setup
+    public void setUp() throws IOException {
+        dataDir = Files.createTempDirectory("privates-bench");
+        storage = new DataStorage(dataDir, new PrivatesConfig());
+        zones = ZoneFixtures.generate(zoneCount, layout);
+        if (!storage.saveZones(zones)) {
+            throw new IllegalStateException("Failed to write the initial snapshot to " + dataDir);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(dataDir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean save() {
+        return storage.saveZones(zones);
+    }
+
+    @Benchmark
+    public List<PrivateZone> load() {
+        return storage.loadZones();
+    }
+}
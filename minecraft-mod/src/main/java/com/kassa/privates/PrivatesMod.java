@@ -2,12 +2,15 @@ package com.kassa.privates;
 
 import com.kassa.privates.api.WebhookServer;
 import com.kassa.privates.commands.PrivateCommand;
+import com.kassa.privates.data.PrivateManager;
 import com.kassa.privates.handlers.ProtectionHandler;
 import com.kassa.privates.handlers.SelectionHandler;
+import com.kassa.privates.metrics.PrivatesMetrics;
 
 import net.fabricmc.api.ModInitializer;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 
 public class PrivatesMod implements ModInitializer {
     public static final String MOD_ID = "privates";
@@ -23,19 +26,43 @@ public class PrivatesMod implements ModInitializer {
         SelectionHandler.register();
         ProtectionHandler.register();
 
+        registerGauges();
+
         webhookServer = new WebhookServer();
         
+        ServerLifecycleEvents.SERVER_STARTING.register(server -> {
+            System.out.println("Minecraft server starting, loading private zones...");
+            PrivateManager.getInstance().startLoading();
+        });
 
         ServerLifecycleEvents.SERVER_STARTED.register(server -> {
+            try {
+                PrivateManager.getInstance().awaitReady();
+            } catch (IllegalStateException e) {
+                System.err.println(e.getMessage() + ", stopping the server instead of running without protection");
+                server.stop(false);
+                return;
+            }
             System.out.println("Minecraft server started, starting webhook server...");
             webhookServer.start();
         });
         
+        ServerTickEvents.END_SERVER_TICK.register(server -> 
+            PrivateManager.getInstance().getMutationQueue().drain());
+        
         ServerLifecycleEvents.SERVER_STOPPING.register(server -> {
             System.out.println("Minecraft server stopping, stopping webhook server...");
             webhookServer.stop();
+            PrivateManager.getInstance().shutdown();
         });
         
         System.out.println("Mod Privates loaded successfully!");
     }
+
+    private static void registerGauges() {
+        PrivatesMetrics.REGISTRY.gauge("privates_zones", "Private zones per world", "world",
+            () -> PrivateManager.getInstance().countZonesByWorld());
+        PrivatesMetrics.REGISTRY.gauge("privates_mutation_queue_depth", "Webhook mutations waiting for a server tick",
+            () -> PrivateManager.getInstance().getMutationQueue().size());
+    }
 }
\ No newline at end of file
@@ -1,22 +1,32 @@
 package com.kassa.privates.api;
 
 import com.google.gson.Gson;
+import com.kassa.privates.config.PrivatesConfig;
 
-import net.minecraft.server.network.ServerPlayerEntity;
-
-import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 public class ApiService {
-    private static final String API_URL = "https://48ad-212-47-148-189.ngrok-free.app/items";
-    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(10))
-            .build();
+    private static final PrivatesConfig CONFIG = PrivatesConfig.get();
+    private static final String API_URL = CONFIG.getApiUrl();
+    private static final ResilientHttpClient HTTP_CLIENT = new ResilientHttpClient(
+            HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofSeconds(CONFIG.getApiConnectTimeoutSeconds()))
+                    .build(),
+            new CircuitBreaker(CONFIG.getApiBreakerFailureThreshold(),
+                    TimeUnit.SECONDS.toMillis(CONFIG.getApiBreakerOpenSeconds())),
+            CONFIG.getApiMaxAttempts(),
+            CONFIG.getApiRetryBaseDelayMillis(),
+            TimeUnit.SECONDS.toMillis(CONFIG.getApiLatencyBudgetSeconds()));
     private static final Gson GSON = new Gson();
     
     public static class ApiResponse {
@@ -25,6 +35,13 @@ public class ApiService {
         
         public boolean isSuccess() { return success; }
         public String getMessage() { return message; }
+
+        static ApiResponse of(boolean success, String message) {
+            ApiResponse response = new ApiResponse();
+            response.success = success;
+            response.message = message;
+            return response;
+        }
     }
 
     @SuppressWarnings("unused")
@@ -75,56 +92,160 @@ public class ApiService {
             
             this.metadata = new Metadata(zoneName, description, imageUrl, attributes);
         }
+
+        String getZoneUuid() {
+            for (Attribute attribute : metadata.attributes) {
+                if ("uuid".equals(attribute.trait_type)) {
+                    return attribute.value;
+                }
+            }
+            return null;
+        }
+    }
+    
+    @SuppressWarnings("unused")
+    private static class BatchRequest {
+        private final List<ZoneCreateRequest> items;
+        
+        BatchRequest(List<ZoneCreateRequest> items) {
+            this.items = items;
+        }
     }
     
-    public static ApiResponse createZone(String zoneName, ServerPlayerEntity player, String zoneUuid) {
+    private static class BatchResponse {
+        private List<BatchResult> results;
+    }
+    
+    private static class BatchResult {
+        private String uuid;
+        private String status;
+        private String error;
+    }
+    
+    /**
+     * Sends the zone creation request without blocking the caller. The returned future
+     * completes on an HTTP client thread and never completes exceptionally; failures are
+     * reported as an unsuccessful {@link ApiResponse}.
+     */
+    public static CompletableFuture<ApiResponse> createZoneAsync(String zoneName, String playerName,
+                                                                 String playerUuid, String zoneUuid) {
+        HttpRequest httpRequest;
         try {
-            ZoneCreateRequest request = new ZoneCreateRequest(
-                zoneName, 
-                player.getName().getString(), 
-                player.getUuidAsString(), 
-                zoneUuid
-            );
+            ZoneCreateRequest request = new ZoneCreateRequest(zoneName, playerName, playerUuid, zoneUuid);
             
             String jsonBody = GSON.toJson(request);
             System.out.println("Sending API request: " + jsonBody);
             
-            HttpRequest httpRequest = HttpRequest.newBuilder()
+            httpRequest = HttpRequest.newBuilder()
                     .uri(URI.create(API_URL))
                     .header("Content-Type", "application/json")
-                    .timeout(Duration.ofSeconds(15))
+                    .timeout(Duration.ofSeconds(CONFIG.getApiRequestTimeoutSeconds()))
                     .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
                     .build();
-            
-            HttpResponse<String> response = HTTP_CLIENT.send(httpRequest, 
-                    HttpResponse.BodyHandlers.ofString());
-            
-            System.out.println("API response status: " + response.statusCode());
-            System.out.println("API response body: " + response.body());
-            
-            ApiResponse apiResponse = new ApiResponse();
-            if (response.statusCode() == 200 || response.statusCode() == 201) {
-                apiResponse.success = true;
-                apiResponse.message = "Zone created successfully";
-            } else {
-                apiResponse.success = false;
-                apiResponse.message = "API returned status: " + response.statusCode();
-            }
-            
-            return apiResponse;
-            
-        } catch (IOException | InterruptedException e) {
-            System.err.println("Failed to call external API: " + e.getMessage());
-            ApiResponse errorResponse = new ApiResponse();
-            errorResponse.success = false;
-            errorResponse.message = "Network error: " + e.getMessage();
-            return errorResponse;
         } catch (Exception e) {
             System.err.println("Unexpected error during API call: " + e.getMessage());
-            ApiResponse errorResponse = new ApiResponse();
-            errorResponse.success = false;
-            errorResponse.message = "Unexpected error: " + e.getMessage();
-            return errorResponse;
+            return CompletableFuture.completedFuture(errorResponse("Unexpected error: " + e.getMessage()));
         }
+        
+        // Safe to retry: the backend returns the existing item for a zone uuid it already has.
+        return HTTP_CLIENT.send(httpRequest, true)
+                .thenApply(ApiService::toApiResponse)
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof ResilientHttpClient.CircuitOpenException) {
+                        return errorResponse(cause.getMessage() + ", please try again later");
+                    }
+                    System.err.println("Failed to call external API: " + cause.getMessage());
+                    return errorResponse("Network error: " + cause.getMessage());
+                });
+    }
+    
+    /**
+     * What the backend did with a batch: the zone ids it confirmed (newly created or already
+     * known) and those it refused. {@link #isBatchRejected()} means the whole request was
+     * refused with a 4xx status, so every zone in it counts as refused.
+     */
+    public static class BatchOutcome {
+        private final Set<String> delivered = new HashSet<>();
+        private final Set<String> rejected = new HashSet<>();
+        private boolean batchRejected;
+
+        public Set<String> getDelivered() { return delivered; }
+        public Set<String> getRejected() { return rejected; }
+        public boolean isBatchRejected() { return batchRejected; }
+    }
+    
+    /**
+     * Posts several creation requests to the batch endpoint. Never completes exceptionally;
+     * a request that got no usable answer completes with an empty outcome.
+     */
+    public static CompletableFuture<BatchOutcome> createZonesBatchAsync(List<ZoneCreateRequest> requests) {
+        HttpRequest httpRequest;
+        try {
+            httpRequest = HttpRequest.newBuilder()
+                    .uri(URI.create(API_URL + "/batch"))
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(CONFIG.getApiRequestTimeoutSeconds()))
+                    .POST(HttpRequest.BodyPublishers.ofString(GSON.toJson(new BatchRequest(requests))))
+                    .build();
+        } catch (Exception e) {
+            System.err.println("Failed to build zone batch request: " + e.getMessage());
+            return CompletableFuture.completedFuture(new BatchOutcome());
+        }
+        
+        // Items are deduplicated by zone uuid, so a retried batch reports them as "existing".
+        return HTTP_CLIENT.send(httpRequest, true)
+                .thenApply(response -> {
+                    BatchOutcome outcome = new BatchOutcome();
+                    if (response.statusCode() != 200) {
+                        System.err.println("Batch API returned status: " + response.statusCode());
+                        outcome.batchRejected = response.statusCode() >= 400 && response.statusCode() < 500
+                            && response.statusCode() != 429;
+                        return outcome;
+                    }
+                    
+                    BatchResponse batchResponse = GSON.fromJson(response.body(), BatchResponse.class);
+                    if (batchResponse != null && batchResponse.results != null) {
+                        for (BatchResult result : batchResponse.results) {
+                            if (result.uuid != null && ("created".equals(result.status) || "existing".equals(result.status))) {
+                                outcome.delivered.add(result.uuid);
+                            } else {
+                                System.err.println("Batch API did not accept zone " + result.uuid + ": " + result.error);
+                                if (result.uuid != null) {
+                                    outcome.rejected.add(result.uuid);
+                                }
+                            }
+                        }
+                    }
+                    return outcome;
+                })
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    System.err.println("Failed to deliver zone batch: " + cause.getMessage());
+                    return new BatchOutcome();
+                });
+    }
+    
+    public static ResilientHttpClient getHttpClient() {
+        return HTTP_CLIENT;
+    }
+    
+    private static ApiResponse toApiResponse(HttpResponse<String> response) {
+        System.out.println("API response status: " + response.statusCode());
+        System.out.println("API response body: " + response.body());
+        
+        ApiResponse apiResponse = new ApiResponse();
+        if (response.statusCode() == 200 || response.statusCode() == 201) {
+            apiResponse.success = true;
+            apiResponse.message = "Zone created successfully";
+        } else {
+            apiResponse.success = false;
+            apiResponse.message = "API returned status: " + response.statusCode();
+        }
+        return apiResponse;
+    }
+    
+    private static ApiResponse errorResponse(String message) {
+        return ApiResponse.of(false, message);
+    }
     }
-}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.kassa.privates.api;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the most recent request latencies in a fixed ring buffer for percentile reporting.
+ */
+public class LatencyTracker {
+    private final long[] samples;
+    private int next;
+    private int count;
+    private long totalRequests;
+
+    public LatencyTracker(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    public synchronized void record(long millis) {
+        samples[next] = millis;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+        totalRequests++;
+    }
+
+    /**
+     * Returns the latency at {@code percentile} (0-100) over the buffered samples, or -1 when empty.
+     */
+    public synchronized long percentile(double percentile) {
+        if (count == 0) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))];
+    }
+
+    public synchronized long getTotalRequests() {
+        return totalRequests;
+    }
+}
@@ -0,0 +1,151 @@
+package com.kassa.privates.api;
+
+import com.kassa.privates.metrics.Histogram;
+import com.kassa.privates.metrics.PrivatesMetrics;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends requests with retries on transient failures (network errors, 429 and 5xx),
+ * jittered exponential backoff and an overall latency budget per call. A shared
+ * {@link CircuitBreaker} fails calls immediately while the backend is known to be down.
+ * <p>
+ * Requests that are not idempotent are only retried when the backend cannot have acted on
+ * them: the connection was never established, or it answered 429.
+ */
+public class ResilientHttpClient {
+    public static class CircuitOpenException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public CircuitOpenException() {
+            super("Backend is temporarily unavailable");
+        }
+    }
+
+    private static final Histogram REQUEST_SECONDS = PrivatesMetrics.API_SECONDS.labels();
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "PUT", "DELETE");
+
+    private final HttpClient httpClient;
+    private final CircuitBreaker circuitBreaker;
+    private final LatencyTracker latencyTracker = new LatencyTracker(512);
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long budgetMillis;
+
+    public ResilientHttpClient(HttpClient httpClient, CircuitBreaker circuitBreaker, int maxAttempts,
+                               long baseDelayMillis, long budgetMillis) {
+        this.httpClient = httpClient;
+        this.circuitBreaker = circuitBreaker;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMillis = baseDelayMillis;
+        this.budgetMillis = budgetMillis;
+    }
+
+    /**
+     * Sends {@code request}, treating it as idempotent only for GET, HEAD, PUT and DELETE.
+     */
+    public CompletableFuture<HttpResponse<String>> send(HttpRequest request) {
+        return send(request, IDEMPOTENT_METHODS.contains(request.method()));
+    }
+
+    /**
+     * Sends {@code request}, retrying as needed. Completes with the last response received
+     * (which may still be an error status) or exceptionally when no response arrived at all.
+     * Pass {@code idempotent} for requests the backend deduplicates, such as item creation
+     * keyed by the zone uuid.
+     */
+    public CompletableFuture<HttpResponse<String>> send(HttpRequest request, boolean idempotent) {
+        CompletableFuture<HttpResponse<String>> result = new CompletableFuture<>();
+        attempt(request, idempotent, 1, System.currentTimeMillis() + budgetMillis, result);
+        return result;
+    }
+
+    private void attempt(HttpRequest request, boolean idempotent, int attempt, long deadline,
+                         CompletableFuture<HttpResponse<String>> result) {
+        long remaining = deadline - System.currentTimeMillis();
+        if (!circuitBreaker.tryAcquire()) {
+            PrivatesMetrics.API_RESPONSES.labels("circuit_open").increment();
+            result.completeExceptionally(new CircuitOpenException());
+            return;
+        }
+
+        long start = System.nanoTime();
+        httpClient.sendAsync(withTimeout(request, remaining), HttpResponse.BodyHandlers.ofString())
+            .whenComplete((response, error) -> {
+                long elapsedNanos = System.nanoTime() - start;
+                latencyTracker.record(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+                REQUEST_SECONDS.record(elapsedNanos);
+                PrivatesMetrics.API_RESPONSES.labels(error == null ? Integer.toString(response.statusCode()) : "error")
+                    .increment();
+
+                if (error == null && !isTransient(response.statusCode())) {
+                    circuitBreaker.recordSuccess();
+                    result.complete(response);
+                    return;
+                }
+
+                circuitBreaker.recordFailure();
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+                long delay = backoffDelay(attempt);
+                boolean retryable = idempotent || (cause != null ? neverSent(cause) : response.statusCode() == 429);
+                if (!retryable || attempt >= maxAttempts || System.currentTimeMillis() + delay >= deadline) {
+                    if (cause != null) {
+                        result.completeExceptionally(cause);
+                    } else {
+                        result.complete(response);
+                    }
+                    return;
+                }
+
+                System.err.println("Request to " + request.uri() + " failed (attempt " + attempt + "/" + maxAttempts
+                    + ": " + (cause != null ? cause.getMessage() : "status " + response.statusCode())
+                    + "), retrying in " + delay + " ms");
+                CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS)
+                    .execute(() -> attempt(request, idempotent, attempt + 1, deadline, result));
+            });
+    }
+
+    private static HttpRequest withTimeout(HttpRequest request, long remainingMillis) {
+        Duration remaining = Duration.ofMillis(Math.max(1, remainingMillis));
+        if (request.timeout().isPresent() && request.timeout().get().compareTo(remaining) <= 0) {
+            return request;
+        }
+        return HttpRequest.newBuilder(request, (name, value) -> true).timeout(remaining).build();
+    }
+
+    /**
+     * True when the request failed before a connection existed, so it never reached the backend.
+     */
+    private static boolean neverSent(Throwable cause) {
+        return cause instanceof ConnectException || cause instanceof HttpConnectTimeoutException;
+    }
+
+    private static boolean isTransient(int statusCode) {
+        return statusCode == 429 || statusCode >= 500;
+    }
+
+    private long backoffDelay(int attempt) {
+        long delay = baseDelayMillis << Math.min(attempt - 1, 16);
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public LatencyTracker getLatencyTracker() {
+        return latencyTracker;
+    }
+}
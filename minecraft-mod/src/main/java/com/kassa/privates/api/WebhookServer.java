@@ -1,7 +1,10 @@
 package com.kassa.privates.api;
 
 import com.google.gson.Gson;
+import com.kassa.privates.config.PrivatesConfig;
 import com.kassa.privates.data.PrivateManager;
+import com.kassa.privates.metrics.Histogram;
+import com.kassa.privates.metrics.PrivatesMetrics;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
@@ -11,23 +14,56 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
-import java.util.concurrent.CompletableFuture;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class WebhookServer {
-    private static final int PORT = 8081;
     private static final String MOCK_OWNER_UUID = "00000000-0000-0000-0000-000000000000";
     private static final Gson GSON = new Gson();
+    private static final LatencyTracker LATENCY = new LatencyTracker(512);
+    private static final AtomicInteger IN_FLIGHT = new AtomicInteger();
+    private static final AtomicInteger PEAK_IN_FLIGHT = new AtomicInteger();
+    private static final long MUTATION_TIMEOUT_SECONDS = 10;
+    private static final String QUEUED_MESSAGE = "Ownership change queued, it will be applied shortly";
     
+    private final int port;
+    private final int backlog;
     private HttpServer server;
+    private ExecutorService executor;
+
+    static {
+        PrivatesMetrics.REGISTRY.gauge("privates_webhook_in_flight", "Webhook requests currently being handled",
+            IN_FLIGHT::get);
+    }
+
+    public WebhookServer() {
+        PrivatesConfig config = PrivatesConfig.get();
+        this.port = config.getWebhookPort();
+        this.backlog = config.getWebhookBacklog();
+    }
     
     public static class OwnershipChangeRequest {
         private String uuid;
         private String newOwner;
+        private String eventId;
+        private Long blockNumber;
+        private Long logIndex;
         
         public String getUuid() { return uuid; }
         public String getNewOwner() { return newOwner; }
+        public String getEventId() { return eventId; }
+        public Long getBlockNumber() { return blockNumber; }
+        public Long getLogIndex() { return logIndex; }
+        
+        PrivateManager.OwnerChange toOwnerChange() {
+            return new PrivateManager.OwnerChange(uuid, resolveOwnerUuid(newOwner), resolveOwnerName(newOwner),
+                eventId, blockNumber, logIndex);
+        }
     }
     
     @SuppressWarnings("unused")
@@ -41,15 +77,45 @@ public class WebhookServer {
         }
     }
     
+    @SuppressWarnings("unused")
+    public static class BatchItemResult {
+        private final String uuid;
+        private final boolean success;
+        private final String message;
+        
+        public BatchItemResult(String uuid, boolean success, String message) {
+            this.uuid = uuid;
+            this.success = success;
+            this.message = message;
+        }
+    }
+    
+    @SuppressWarnings("unused")
+    public static class BatchResponse {
+        private final boolean success;
+        private final List<BatchItemResult> results;
+        
+        public BatchResponse(boolean success, List<BatchItemResult> results) {
+            this.success = success;
+            this.results = results;
+        }
+    }
+    
     public void start() {
         try {
-            server = HttpServer.create(new InetSocketAddress(PORT), 0);
+            server = HttpServer.create(new InetSocketAddress(port), backlog);
             server.createContext("/change-owner", new OwnershipChangeHandler());
-            server.setExecutor(Executors.newFixedThreadPool(4));
+            server.createContext("/change-owner/batch", new BatchOwnershipChangeHandler());
+            server.createContext("/metrics", new MetricsHandler());
+            // Handlers only do short, lock-protected in-memory work, so one virtual thread per request is enough.
+            executor = Executors.newVirtualThreadPerTaskExecutor();
+            server.setExecutor(executor);
             server.start();
             
-            System.out.println("Webhook server started on port " + PORT);
-            System.out.println("Listening for ownership change requests at: http://localhost:" + PORT + "/change-owner");
+            System.out.println("Webhook server started on port " + port + " (backlog " + backlog + ")");
+            System.out.println("Listening for ownership change requests at: http://localhost:" + port + "/change-owner");
+            System.out.println("Listening for batched ownership changes at: http://localhost:" + port + "/change-owner/batch");
+            System.out.println("Serving metrics at: http://localhost:" + port + "/metrics");
             
         } catch (IOException e) {
             System.err.println("Failed to start webhook server: " + e.getMessage());
@@ -59,13 +125,77 @@ public class WebhookServer {
     public void stop() {
         if (server != null) {
             server.stop(0);
+            executor.shutdown();
             System.out.println("Webhook server stopped");
         }
     }
     
-    private static class OwnershipChangeHandler implements HttpHandler {
+    public static LatencyTracker getLatencyTracker() {
+        return LATENCY;
+    }
+
+    public static int getPeakInFlight() {
+        return PEAK_IN_FLIGHT.get();
+    }
+    
+    private static String resolveOwnerUuid(String newOwner) {
+        if (newOwner == null || newOwner.trim().isEmpty()) {
+            return MOCK_OWNER_UUID;
+        }
+        return newOwner;
+    }
+    
+    private static String resolveOwnerName(String newOwner) {
+        return newOwner == null ? "Pending Player" : "New Owner";
+    }
+    
+    private abstract static class MeasuredHandler implements HttpHandler {
+        private final Histogram requestSeconds;
+        
+        MeasuredHandler(String path) {
+            this.requestSeconds = PrivatesMetrics.WEBHOOK_SECONDS.labels(path);
+        }
+        
         @Override
         public void handle(HttpExchange exchange) throws IOException {
+            long start = System.nanoTime();
+            PEAK_IN_FLIGHT.accumulateAndGet(IN_FLIGHT.incrementAndGet(), Math::max);
+            try {
+                handleMeasured(exchange);
+            } finally {
+                IN_FLIGHT.decrementAndGet();
+                long elapsedNanos = System.nanoTime() - start;
+                LATENCY.record(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+                requestSeconds.record(elapsedNanos);
+            }
+        }
+        
+        protected abstract void handleMeasured(HttpExchange exchange) throws IOException;
+        
+        protected String readRequestBody(InputStream inputStream) throws IOException {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        
+        protected void sendResponse(HttpExchange exchange, int statusCode, Object response) throws IOException {
+            String jsonResponse = GSON.toJson(response);
+            byte[] responseBytes = jsonResponse.getBytes(StandardCharsets.UTF_8);
+            
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(statusCode, responseBytes.length);
+            
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(responseBytes);
+            }
+        }
+    }
+    
+    private static class OwnershipChangeHandler extends MeasuredHandler {
+        OwnershipChangeHandler() {
+            super("/change-owner");
+        }
+        
+        @Override
+        protected void handleMeasured(HttpExchange exchange) throws IOException {
             if (!"POST".equals(exchange.getRequestMethod())) {
                 sendResponse(exchange, 405, new ApiResponse(false, "Method not allowed"));
                 return;
@@ -82,50 +212,37 @@ public class WebhookServer {
                     return;
                 }
                 
-                String newOwnerUuid = request.getNewOwner();
-                if (newOwnerUuid == null || newOwnerUuid.trim().isEmpty()) {
-                    newOwnerUuid = MOCK_OWNER_UUID;
+                String newOwnerUuid = resolveOwnerUuid(request.getNewOwner());
+                if (MOCK_OWNER_UUID.equals(newOwnerUuid)) {
                     System.out.println("No new owner specified, using mock UUID: " + MOCK_OWNER_UUID);
                 } else {
                     System.out.println("Changing owner to: " + newOwnerUuid);
                 }
                 
-                final String finalNewOwnerUuid = newOwnerUuid;
-                final String finalNewOwnerName = request.getNewOwner() == null ? "Pending Player" : "New Owner";
+                PrivateManager.OwnerChange change = request.toOwnerChange();
                 
-                CompletableFuture<Boolean> future = CompletableFuture.supplyAsync(() -> {
-                    try {
-                        System.out.println("Processing ownership change in background thread...");
-                        boolean result = PrivateManager.getInstance().changeZoneOwner(
-                            request.getUuid(), 
-                            finalNewOwnerUuid,
-                            finalNewOwnerName
-                        );
-                        System.out.println("Ownership change completed: " + result);
-                        return result;
-                    } catch (Exception e) {
-                        System.err.println("Error changing zone owner: " + e.getMessage());
-                        e.printStackTrace();
-                        return false;
-                    }
-                });
-                
-                Boolean result;
+                PrivateManager.OwnerChangeResult result;
                 try {
-                    result = future.get(10, TimeUnit.SECONDS);
-                    System.out.println("Future completed with result: " + result);
+                    PrivateManager manager = PrivateManager.getInstance();
+                    result = manager.getMutationQueue()
+                        .submit(() -> manager.changeZoneOwners(List.of(change))[0])
+                        .get(MUTATION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                    System.out.println("Ownership change completed: " + result);
+                } catch (TimeoutException e) {
+                    // The change stays queued and will still be applied, so report it as accepted
+                    // rather than inviting a retry.
+                    System.err.println("Ownership change for " + request.getUuid() + " is still queued");
+                    sendResponse(exchange, 202, new ApiResponse(true, QUEUED_MESSAGE));
+                    return;
                 } catch (Exception e) {
-                    System.err.println("Timeout or error waiting for operation: " + e.getMessage());
+                    System.err.println("Error changing zone owner: " + e.getMessage());
                     e.printStackTrace();
-                    result = false;
-                }
-                
-                if (result) {
-                    sendResponse(exchange, 200, new ApiResponse(true, "Zone ownership changed successfully"));
-                } else {
-                    sendResponse(exchange, 404, new ApiResponse(false, "Zone not found or ownership change failed"));
+                    sendResponse(exchange, 500, new ApiResponse(false, "Ownership change failed"));
+                    return;
                 }
                 
+                sendResponse(exchange, result.isSuccess() ? 200 : 404,
+                    new ApiResponse(result.isSuccess(), result.getMessage()));
                 
             } catch (Exception e) {
                 System.err.println("Error processing ownership change request: " + e.getMessage());
@@ -133,17 +250,87 @@ public class WebhookServer {
                 sendResponse(exchange, 500, new ApiResponse(false, "Internal server error: " + e.getMessage()));
             }
         }
-        
-        private String readRequestBody(InputStream inputStream) throws IOException {
-            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+    }
+    
+    private static class BatchOwnershipChangeHandler extends MeasuredHandler {
+        BatchOwnershipChangeHandler() {
+            super("/change-owner/batch");
         }
         
-        private void sendResponse(HttpExchange exchange, int statusCode, ApiResponse response) throws IOException {
-            String jsonResponse = GSON.toJson(response);
-            byte[] responseBytes = jsonResponse.getBytes(StandardCharsets.UTF_8);
+        @Override
+        protected void handleMeasured(HttpExchange exchange) throws IOException {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                sendResponse(exchange, 405, new ApiResponse(false, "Method not allowed"));
+                return;
+            }
             
-            exchange.getResponseHeaders().set("Content-Type", "application/json");
-            exchange.sendResponseHeaders(statusCode, responseBytes.length);
+            try {
+                OwnershipChangeRequest[] requests = GSON.fromJson(readRequestBody(exchange.getRequestBody()),
+                    OwnershipChangeRequest[].class);
+                if (requests == null) {
+                    sendResponse(exchange, 400, new ApiResponse(false, "Expected an array of ownership changes"));
+                    return;
+                }
+                System.out.println("Received batch of " + requests.length + " ownership changes");
+                
+                List<PrivateManager.OwnerChange> changes = new ArrayList<>(requests.length);
+                List<Integer> changeIndexes = new ArrayList<>(requests.length);
+                BatchItemResult[] results = new BatchItemResult[requests.length];
+                for (int i = 0; i < requests.length; i++) {
+                    OwnershipChangeRequest request = requests[i];
+                    if (request == null || request.getUuid() == null || request.getUuid().trim().isEmpty()) {
+                        results[i] = new BatchItemResult(request == null ? null : request.getUuid(), false,
+                            "Zone UUID is required");
+                        continue;
+                    }
+                    changes.add(request.toOwnerChange());
+                    changeIndexes.add(i);
+                }
+                
+                PrivateManager.OwnerChangeResult[] applied;
+                try {
+                    PrivateManager manager = PrivateManager.getInstance();
+                    applied = manager.getMutationQueue()
+                        .submit(() -> manager.changeZoneOwners(changes), changes.size())
+                        .get(MUTATION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                } catch (TimeoutException e) {
+                    System.err.println("Batch of " + changes.size() + " ownership changes is still queued");
+                    for (int i = 0; i < changes.size(); i++) {
+                        results[changeIndexes.get(i)] = new BatchItemResult(changes.get(i).getZoneUuid(), true,
+                            QUEUED_MESSAGE);
+                    }
+                    sendResponse(exchange, 202, new BatchResponse(changes.size() == requests.length, List.of(results)));
+                    return;
+                }
+                boolean allSucceeded = changes.size() == requests.length;
+                for (int i = 0; i < applied.length; i++) {
+                    results[changeIndexes.get(i)] = new BatchItemResult(changes.get(i).getZoneUuid(),
+                        applied[i].isSuccess(), applied[i].getMessage());
+                    allSucceeded &= applied[i].isSuccess();
+                }
+                
+                sendResponse(exchange, 200, new BatchResponse(allSucceeded, List.of(results)));
+                
+            } catch (Exception e) {
+                System.err.println("Error processing batch ownership change request: " + e.getMessage());
+                e.printStackTrace();
+                sendResponse(exchange, 500, new ApiResponse(false, "Internal server error: " + e.getMessage()));
+            }
+        }
+    }
+    
+    private static class MetricsHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                exchange.close();
+                return;
+            }
+            
+            byte[] responseBytes = PrivatesMetrics.REGISTRY.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, responseBytes.length);
             
             try (OutputStream os = exchange.getResponseBody()) {
                 os.write(responseBytes);
@@ -0,0 +1,333 @@
+package com.kassa.privates.api;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.annotations.SerializedName;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Durable queue of zone creation requests for the backend. Requests are appended to
+ * {@code outbox.jsonl} before they count as accepted and are delivered in batches by a
+ * background sender; after each delivery the file is rewritten with only the entries still
+ * pending. Anything not yet delivered is sent again after a restart, so delivery is
+ * at-least-once and the backend deduplicates by zone UUID.
+ * <p>
+ * A zone the backend refuses {@code maxRejections} times is moved to {@code outbox.jsonl.dead}
+ * for manual follow-up instead of being resent forever.
+ * <p>
+ * All state is confined to the outbox thread.
+ */
+public class ZoneOutbox {
+    private static final Gson GSON = new Gson();
+    private static final String DEAD_LETTER_SUFFIX = ".dead";
+
+    private final Path outboxFile;
+    private final Path deadLetterFile;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final int maxRejections;
+    private final Function<List<ApiService.ZoneCreateRequest>, CompletableFuture<ApiService.BatchOutcome>> sender;
+    private final Map<String, ApiService.ZoneCreateRequest> pending = new LinkedHashMap<>();
+    private final Map<String, Integer> rejections = new HashMap<>();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Privates-Outbox");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private boolean sending;
+    private boolean started;
+
+    private static class Record {
+        @SerializedName("zone")
+        private String zoneId;
+
+        @SerializedName("request")
+        private ApiService.ZoneCreateRequest request;
+
+        Record(String zoneId, ApiService.ZoneCreateRequest request) {
+            this.zoneId = zoneId;
+            this.request = request;
+        }
+    }
+
+    public ZoneOutbox(Path outboxFile, int batchSize, long flushIntervalMillis, int maxRejections) {
+        this(outboxFile, batchSize, flushIntervalMillis, maxRejections, ApiService::createZonesBatchAsync);
+    }
+
+    /**
+     * Outbox delivering through {@code sender} instead of the backend, e.g. a local stand-in in
+     * tests. The sender must never complete exceptionally.
+     */
+    ZoneOutbox(Path outboxFile, int batchSize, long flushIntervalMillis, int maxRejections,
+               Function<List<ApiService.ZoneCreateRequest>, CompletableFuture<ApiService.BatchOutcome>> sender) {
+        this.sender = sender;
+        this.outboxFile = outboxFile;
+        this.deadLetterFile = outboxFile.resolveSibling(outboxFile.getFileName() + DEAD_LETTER_SUFFIX);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.maxRejections = Math.max(1, maxRejections);
+    }
+
+    /**
+     * Loads undelivered entries and starts the background sender.
+     */
+    public void start() {
+        executor.execute(() -> {
+            try {
+                load();
+                if (!pending.isEmpty()) {
+                    System.out.println("Resending " + pending.size() + " undelivered zone(s) from the outbox");
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Failed to load the outbox: " + e.getMessage());
+                e.printStackTrace();
+            } finally {
+                // Even a failed load must not stop delivery of entries queued from now on.
+                started = true;
+            }
+        });
+        // An exception escaping a scheduled run would cancel every later one.
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                deliver();
+            } catch (Throwable t) {
+                sending = false;
+                System.err.println("Outbox delivery failed: " + t.getMessage());
+                t.printStackTrace();
+            }
+        }, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Durably records a creation request. The future completes once the entry is on disk.
+     */
+    public CompletableFuture<ApiService.ApiResponse> enqueue(String zoneId, ApiService.ZoneCreateRequest request) {
+        CompletableFuture<ApiService.ApiResponse> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    write(List.of(new Record(zoneId, request)));
+                    pending.put(zoneId, request);
+                    result.complete(ApiService.ApiResponse.of(true, "Zone queued for registration"));
+                    if (pending.size() >= batchSize) {
+                        deliver();
+                    }
+                } catch (IOException e) {
+                    System.err.println("Failed to write zone " + zoneId + " to the outbox: " + e.getMessage());
+                    result.complete(ApiService.ApiResponse.of(false, "Could not store the zone request"));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.complete(ApiService.ApiResponse.of(false, "Server is shutting down"));
+        }
+        return result;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                System.err.println("Timed out waiting for the outbox to finish");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void deliver() {
+        if (!started || sending || pending.isEmpty()) {
+            return;
+        }
+
+        List<String> zoneIds = new ArrayList<>(batchSize);
+        List<ApiService.ZoneCreateRequest> requests = new ArrayList<>(batchSize);
+        for (Map.Entry<String, ApiService.ZoneCreateRequest> entry : pending.entrySet()) {
+            if (zoneIds.size() >= batchSize) {
+                break;
+            }
+            zoneIds.add(entry.getKey());
+            requests.add(entry.getValue());
+        }
+
+        sending = true;
+        sender.apply(requests).whenComplete((outcome, error) -> {
+            try {
+                executor.execute(() -> acknowledge(zoneIds, outcome != null ? outcome : new ApiService.BatchOutcome()));
+            } catch (RejectedExecutionException e) {
+                // Shutting down; undelivered entries are resent on the next start.
+            }
+        });
+    }
+
+    private void acknowledge(List<String> zoneIds, ApiService.BatchOutcome outcome) {
+        sending = false;
+
+        List<String> delivered = new ArrayList<>();
+        List<Record> deadLetters = new ArrayList<>();
+        for (String zoneId : zoneIds) {
+            if (outcome.getDelivered().contains(zoneId)) {
+                delivered.add(zoneId);
+            } else if (outcome.isBatchRejected() || outcome.getRejected().contains(zoneId)) {
+                if (rejections.merge(zoneId, 1, Integer::sum) >= maxRejections) {
+                    deadLetters.add(new Record(zoneId, pending.get(zoneId)));
+                }
+            }
+        }
+        if (delivered.isEmpty() && deadLetters.isEmpty()) {
+            return;
+        }
+
+        try {
+            if (!deadLetters.isEmpty()) {
+                write(deadLetterFile, deadLetters);
+                for (Record deadLetter : deadLetters) {
+                    System.err.println("Backend rejected zone " + deadLetter.zoneId + " " + maxRejections
+                        + " times, moved it to " + deadLetterFile);
+                }
+            }
+            for (String zoneId : delivered) {
+                pending.remove(zoneId);
+                rejections.remove(zoneId);
+            }
+            for (Record deadLetter : deadLetters) {
+                pending.remove(deadLetter.zoneId);
+                rejections.remove(deadLetter.zoneId);
+            }
+            rewrite();
+        } catch (IOException e) {
+            // Entries still in the file are resent after a restart, which the backend tolerates.
+            System.err.println("Failed to record outbox deliveries: " + e.getMessage());
+        }
+        System.out.println("Delivered " + delivered.size() + " zone(s) to the backend, " + pending.size() + " pending");
+
+        // The whole batch was settled, so keep draining without waiting for the next interval.
+        if (delivered.size() + deadLetters.size() == zoneIds.size() && !pending.isEmpty()) {
+            deliver();
+        }
+    }
+
+    /**
+     * Replaces the outbox file with the entries still pending, so it never grows past them.
+     */
+    private void rewrite() throws IOException {
+        if (pending.isEmpty()) {
+            Files.deleteIfExists(outboxFile);
+            return;
+        }
+
+        List<Record> records = new ArrayList<>(pending.size());
+        for (Map.Entry<String, ApiService.ZoneCreateRequest> entry : pending.entrySet()) {
+            records.add(new Record(entry.getKey(), entry.getValue()));
+        }
+        Path tempFile = outboxFile.resolveSibling(outboxFile.getFileName() + ".tmp");
+        Files.deleteIfExists(tempFile);
+        write(tempFile, records);
+        try {
+            Files.move(tempFile, outboxFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, outboxFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void write(List<Record> records) throws IOException {
+        write(outboxFile, records);
+    }
+
+    private static void write(Path file, List<Record> records) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (Record record : records) {
+            lines.append(GSON.toJson(record)).append('\n');
+        }
+
+        Files.createDirectories(file.getParent());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Reads every complete entry. A crash can cut the last entry off before its newline; the
+     * file is truncated back to the last complete entry so the next append starts on a fresh
+     * line instead of being glued onto the fragment.
+     */
+    private void load() {
+        if (!Files.exists(outboxFile)) {
+            return;
+        }
+
+        byte[] outbox;
+        try {
+            outbox = Files.readAllBytes(outboxFile);
+        } catch (IOException e) {
+            System.err.println("Failed to read outbox: " + e.getMessage());
+            return;
+        }
+
+        int start = 0;
+        int end;
+        while (start < outbox.length && (end = indexOf(outbox, (byte) '\n', start)) >= 0) {
+            String line = new String(outbox, start, end - start, StandardCharsets.UTF_8);
+            start = end + 1;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            Record record;
+            try {
+                record = GSON.fromJson(line, Record.class);
+            } catch (JsonParseException e) {
+                record = null;
+            }
+            if (record == null || record.zoneId == null || record.request == null) {
+                System.err.println("Skipping unreadable outbox entry: " + line);
+                continue;
+            }
+            pending.put(record.zoneId, record.request);
+        }
+
+        if (start < outbox.length) {
+            System.err.println("Dropping " + (outbox.length - start) + " bytes of a torn entry at the end of "
+                + outboxFile);
+            try (FileChannel channel = FileChannel.open(outboxFile, StandardOpenOption.WRITE)) {
+                channel.truncate(start);
+                channel.force(false);
+            } catch (IOException e) {
+                System.err.println("Failed to truncate torn outbox entry: " + e.getMessage());
+            }
+        }
+    }
+
+    private static int indexOf(byte[] bytes, byte value, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
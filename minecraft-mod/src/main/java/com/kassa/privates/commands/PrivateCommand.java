@@ -3,8 +3,15 @@ package com.kassa.privates.commands;
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.context.CommandContext;
+import com.kassa.privates.api.ApiService;
+import com.kassa.privates.api.CircuitBreaker;
+import com.kassa.privates.api.LatencyTracker;
+import com.kassa.privates.api.ResilientHttpClient;
+import com.kassa.privates.api.WebhookServer;
 import com.kassa.privates.data.PrivateManager;
 import com.kassa.privates.data.PrivateZone;
+import com.kassa.privates.data.ZoneMember;
+import com.kassa.privates.data.ZonePermission;
 import com.kassa.privates.items.SelectionStick;
 import net.minecraft.command.CommandRegistryAccess;
 import net.minecraft.component.DataComponentTypes;
@@ -13,14 +20,15 @@ import net.minecraft.item.Items;
 import net.minecraft.server.command.CommandManager;
 import net.minecraft.server.command.ServerCommandSource;
 import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.text.MutableText;
 import net.minecraft.text.RawFilteredPair;
 import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
-import net.minecraft.util.math.BlockPos;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class PrivateCommand {
     public static void register(CommandDispatcher<ServerCommandSource> dispatcher, 
@@ -41,6 +49,26 @@ public class PrivateCommand {
 
             .then(CommandManager.literal("uuid")
                 .executes(PrivateCommand::showPlayerUuid))
+
+            .then(CommandManager.literal("trust")
+                .then(CommandManager.literal("add")
+                    .then(CommandManager.argument("zone", StringArgumentType.string())
+                        .then(CommandManager.argument("player", StringArgumentType.word())
+                            .executes(context -> trustPlayer(context, "member"))
+                            .then(CommandManager.argument("permissions", StringArgumentType.greedyString())
+                                .executes(context -> trustPlayer(context,
+                                    StringArgumentType.getString(context, "permissions")))))))
+                .then(CommandManager.literal("remove")
+                    .then(CommandManager.argument("zone", StringArgumentType.string())
+                        .then(CommandManager.argument("player", StringArgumentType.word())
+                            .executes(PrivateCommand::untrustPlayer))))
+                .then(CommandManager.literal("list")
+                    .then(CommandManager.argument("zone", StringArgumentType.string())
+                        .executes(PrivateCommand::listTrusted))))
+
+            .then(CommandManager.literal("status")
+                .requires(source -> source.hasPermissionLevel(2))
+                .executes(PrivateCommand::showBackendStatus))
         );
         
         SelectionStick.init();
@@ -112,36 +140,30 @@ public class PrivateCommand {
             return 0;
         }
 
-        BlockPos pos1 = manager.getFirstPoint(player);
-        BlockPos pos2 = manager.getSecondPoint(player);
-        String worldName = player.getServerWorld().getRegistryKey().getValue().toString();
-        
-        PrivateZone intersectingZone = manager.findIntersectingZone(pos1, pos2, worldName);
-        if (intersectingZone != null) {
+        if (manager.hasPendingCreation(player)) {
             player.sendMessage(
-                Text.literal("Cannot create private zone! The selected area intersects with existing private zone '")
-                    .formatted(Formatting.RED)
-                    .append(Text.literal(intersectingZone.getName())
-                        .formatted(Formatting.YELLOW))
-                    .append(Text.literal("' owned by ")
-                        .formatted(Formatting.RED))
-                    .append(Text.literal(intersectingZone.getOwnerName())
-                        .formatted(Formatting.YELLOW))
-                    .append(Text.literal(".")
-                        .formatted(Formatting.RED)), 
+                Text.literal("Your previous zone is still being confirmed, please wait.")
+                    .formatted(Formatting.RED), 
                 false
             );
             return 0;
         }
+
+        CompletableFuture<PrivateManager.ZoneCreationResult> pending = manager.createPrivateZone(name, player);
+        if (!pending.isDone()) {
+            player.sendMessage(
+                Text.literal("Area reserved. Checking zone creation with external service...")
+                    .formatted(Formatting.YELLOW), 
+                false
+            );
+        }
         
-        player.sendMessage(
-            Text.literal("Checking zone creation with external service...")
-                .formatted(Formatting.YELLOW), 
-            false
-        );
-        
-        PrivateManager.ZoneCreationResult result = manager.createPrivateZone(name, player);
-        
+        pending.thenAccept(result -> sendCreationResult(player, name, result));
+        return 1;
+    }
+
+    private static void sendCreationResult(ServerPlayerEntity player, String name,
+                                           PrivateManager.ZoneCreationResult result) {
         if (result.isSuccess()) {
             PrivateZone zone = result.getZone();
             
@@ -160,7 +182,8 @@ public class PrivateCommand {
                         .formatted(Formatting.AQUA)), 
                 false
             );
-            return 1;
+        } else if (!result.getIntersectingZones().isEmpty()) {
+            sendIntersectionMessage(player, result.getIntersectingZones());
         } else {
             player.sendMessage(
                 Text.literal("Failed to create private zone: ")
@@ -169,10 +192,28 @@ public class PrivateCommand {
                         .formatted(Formatting.YELLOW)), 
                 false
             );
-            return 0;
         }
     }
 
+    private static void sendIntersectionMessage(ServerPlayerEntity player, List<PrivateZone> intersectingZones) {
+        MutableText message = Text.literal("Cannot create private zone! The selected area intersects with "
+                + intersectingZones.size() + " existing private zone(s):")
+            .formatted(Formatting.RED);
+
+        for (PrivateZone zone : intersectingZones) {
+            message.append(Text.literal("\n - '")
+                    .formatted(Formatting.RED))
+                .append(Text.literal(zone.getName())
+                    .formatted(Formatting.YELLOW))
+                .append(Text.literal("' owned by ")
+                    .formatted(Formatting.RED))
+                .append(Text.literal(zone.getOwnerName())
+                    .formatted(Formatting.YELLOW));
+        }
+
+        player.sendMessage(message, false);
+    }
+
     private static int listPrivates(CommandContext<ServerCommandSource> context) {
         if (!(context.getSource().getEntity() instanceof ServerPlayerEntity player)) {
             context.getSource().sendFeedback(() -> 
@@ -242,7 +283,11 @@ public class PrivateCommand {
                 .append(Text.literal("\n   Created: ")
                     .formatted(Formatting.GRAY))
                 .append(Text.literal(createdDate)
-                    .formatted(Formatting.LIGHT_PURPLE));
+                    .formatted(Formatting.LIGHT_PURPLE))
+                .append(Text.literal("\n   Trusted: ")
+                    .formatted(Formatting.GRAY))
+                .append(Text.literal(zone.getMembers().size() + " player(s)")
+                    .formatted(Formatting.WHITE));
             
             player.sendMessage(zoneInfo, false);
             
@@ -259,6 +304,236 @@ public class PrivateCommand {
         return 1;
     }
 
+    private static int trustPlayer(CommandContext<ServerCommandSource> context, String permissions) {
+        if (!(context.getSource().getEntity() instanceof ServerPlayerEntity player)) {
+            context.getSource().sendFeedback(() -> 
+                Text.literal("This command is only available to players!").formatted(Formatting.RED), false);
+            return 0;
+        }
+        
+        PrivateZone zone = findOwnedZone(player, StringArgumentType.getString(context, "zone"));
+        if (zone == null) {
+            return 0;
+        }
+        
+        int flags = ZonePermission.parse(permissions);
+        if (flags <= ZonePermission.NONE) {
+            player.sendMessage(
+                Text.literal("Unknown permissions, use roles: ")
+                    .formatted(Formatting.RED)
+                    .append(Text.literal(ZonePermission.roleNames())
+                        .formatted(Formatting.YELLOW))
+                    .append(Text.literal(" or ")
+                        .formatted(Formatting.RED))
+                    .append(Text.literal("break,place,interact,containers,entities")
+                        .formatted(Formatting.YELLOW)), 
+                false
+            );
+            return 0;
+        }
+        
+        String targetName = StringArgumentType.getString(context, "player");
+        ServerPlayerEntity target = context.getSource().getServer().getPlayerManager().getPlayer(targetName);
+        if (target == null) {
+            player.sendMessage(
+                Text.literal("Player '")
+                    .formatted(Formatting.RED)
+                    .append(Text.literal(targetName)
+                        .formatted(Formatting.YELLOW))
+                    .append(Text.literal("' must be online to be trusted.")
+                        .formatted(Formatting.RED)), 
+                false
+            );
+            return 0;
+        }
+        if (target.getUuidAsString().equals(zone.getOwnerUuid())) {
+            player.sendMessage(
+                Text.literal("The owner already has full access to the zone.")
+                    .formatted(Formatting.RED), 
+                false
+            );
+            return 0;
+        }
+        
+        String memberName = target.getName().getString();
+        if (PrivateManager.getInstance().setMemberPermissions(zone.getId(), target.getUuidAsString(), memberName, flags) == null) {
+            player.sendMessage(Text.literal("The zone no longer exists.").formatted(Formatting.RED), false);
+            return 0;
+        }
+        
+        player.sendMessage(
+            Text.literal("Trusted ")
+                .formatted(Formatting.GREEN)
+                .append(Text.literal(memberName)
+                    .formatted(Formatting.GOLD))
+                .append(Text.literal(" in '")
+                    .formatted(Formatting.GREEN))
+                .append(Text.literal(zone.getName())
+                    .formatted(Formatting.AQUA))
+                .append(Text.literal("' as ")
+                    .formatted(Formatting.GREEN))
+                .append(Text.literal(ZonePermission.describe(flags))
+                    .formatted(Formatting.YELLOW)), 
+            false
+        );
+        return 1;
+    }
+
+    private static int untrustPlayer(CommandContext<ServerCommandSource> context) {
+        if (!(context.getSource().getEntity() instanceof ServerPlayerEntity player)) {
+            context.getSource().sendFeedback(() -> 
+                Text.literal("This command is only available to players!").formatted(Formatting.RED), false);
+            return 0;
+        }
+        
+        PrivateZone zone = findOwnedZone(player, StringArgumentType.getString(context, "zone"));
+        if (zone == null) {
+            return 0;
+        }
+        
+        // Members may be offline, so match the stored name first and fall back to an online player's uuid.
+        String targetName = StringArgumentType.getString(context, "player");
+        ZoneMember member = null;
+        for (ZoneMember candidate : zone.getMembers()) {
+            if (targetName.equalsIgnoreCase(candidate.getName())) {
+                member = candidate;
+                break;
+            }
+        }
+        if (member == null) {
+            ServerPlayerEntity target = context.getSource().getServer().getPlayerManager().getPlayer(targetName);
+            if (target != null) {
+                member = zone.getMember(target.getUuidAsString());
+            }
+        }
+        if (member == null) {
+            player.sendMessage(
+                Text.literal("'")
+                    .formatted(Formatting.RED)
+                    .append(Text.literal(targetName)
+                        .formatted(Formatting.YELLOW))
+                    .append(Text.literal("' is not trusted in this zone.")
+                        .formatted(Formatting.RED)), 
+                false
+            );
+            return 0;
+        }
+        
+        PrivateManager.getInstance().setMemberPermissions(zone.getId(), member.getUuid(), member.getName(), ZonePermission.NONE);
+        player.sendMessage(
+            Text.literal("Removed ")
+                .formatted(Formatting.GREEN)
+                .append(Text.literal(member.getName() != null ? member.getName() : member.getUuid())
+                    .formatted(Formatting.GOLD))
+                .append(Text.literal(" from '")
+                    .formatted(Formatting.GREEN))
+                .append(Text.literal(zone.getName())
+                    .formatted(Formatting.AQUA))
+                .append(Text.literal("'.")
+                    .formatted(Formatting.GREEN)), 
+            false
+        );
+        return 1;
+    }
+
+    private static int listTrusted(CommandContext<ServerCommandSource> context) {
+        if (!(context.getSource().getEntity() instanceof ServerPlayerEntity player)) {
+            context.getSource().sendFeedback(() -> 
+                Text.literal("This command is only available to players!").formatted(Formatting.RED), false);
+            return 0;
+        }
+        
+        PrivateZone zone = findOwnedZone(player, StringArgumentType.getString(context, "zone"));
+        if (zone == null) {
+            return 0;
+        }
+        
+        List<ZoneMember> members = zone.getMembers();
+        if (members.isEmpty()) {
+            player.sendMessage(
+                Text.literal("Nobody is trusted in '")
+                    .formatted(Formatting.YELLOW)
+                    .append(Text.literal(zone.getName())
+                        .formatted(Formatting.AQUA))
+                    .append(Text.literal("'. Use ")
+                        .formatted(Formatting.YELLOW))
+                    .append(Text.literal("/private trust add <zone> <player> [permissions]")
+                        .formatted(Formatting.GREEN)), 
+                false
+            );
+            return 1;
+        }
+        
+        MutableText message = Text.literal("═══ Trusted in " + zone.getName() + " (" + members.size() + ") ═══")
+            .formatted(Formatting.GOLD, Formatting.BOLD);
+        for (ZoneMember member : members) {
+            message.append(Text.literal("\n - ")
+                    .formatted(Formatting.GRAY))
+                .append(Text.literal(member.getName() != null ? member.getName() : member.getUuid())
+                    .formatted(Formatting.AQUA))
+                .append(Text.literal(": ")
+                    .formatted(Formatting.GRAY))
+                .append(Text.literal(ZonePermission.describe(member.getFlags()))
+                    .formatted(Formatting.YELLOW));
+        }
+        
+        player.sendMessage(message, false);
+        return 1;
+    }
+
+    private static PrivateZone findOwnedZone(ServerPlayerEntity player, String zoneName) {
+        PrivateZone zone = PrivateManager.getInstance().getPlayerZoneByName(player, zoneName);
+        if (zone == null) {
+            player.sendMessage(
+                Text.literal("You don't have a private zone named '")
+                    .formatted(Formatting.RED)
+                    .append(Text.literal(zoneName)
+                        .formatted(Formatting.YELLOW))
+                    .append(Text.literal("'!")
+                        .formatted(Formatting.RED)), 
+                false
+            );
+        }
+        return zone;
+    }
+
+    private static int showBackendStatus(CommandContext<ServerCommandSource> context) {
+        ResilientHttpClient client = ApiService.getHttpClient();
+        CircuitBreaker.State state = client.getCircuitBreaker().getState();
+        LatencyTracker latency = client.getLatencyTracker();
+        LatencyTracker webhookLatency = WebhookServer.getLatencyTracker();
+        
+        Formatting stateColor = switch (state) {
+            case CLOSED -> Formatting.GREEN;
+            case HALF_OPEN -> Formatting.YELLOW;
+            case OPEN -> Formatting.RED;
+        };
+        
+        context.getSource().sendFeedback(() -> 
+            Text.literal("Backend circuit: ")
+                .formatted(Formatting.GOLD)
+                .append(Text.literal(state.name())
+                    .formatted(stateColor))
+                .append(Text.literal(" (" + client.getCircuitBreaker().getConsecutiveFailures() + " consecutive failures)")
+                    .formatted(Formatting.GRAY))
+                .append(Text.literal(String.format("\nLatency p50/p95/p99: %d/%d/%d ms over %d requests", 
+                    latency.percentile(50), 
+                    latency.percentile(95), 
+                    latency.percentile(99), 
+                    latency.getTotalRequests()))
+                    .formatted(Formatting.AQUA))
+                .append(Text.literal(String.format("\nWebhook p50/p95/p99: %d/%d/%d ms over %d requests, peak %d concurrent", 
+                    webhookLatency.percentile(50), 
+                    webhookLatency.percentile(95), 
+                    webhookLatency.percentile(99), 
+                    webhookLatency.getTotalRequests(),
+                    WebhookServer.getPeakInFlight()))
+                    .formatted(Formatting.AQUA)), 
+            false
+        );
+        return 1;
+    }
+
     private static int showPlayerUuid(CommandContext<ServerCommandSource> context) {
         if (!(context.getSource().getEntity() instanceof ServerPlayerEntity player)) {
             context.getSource().sendFeedback(() -> 
@@ -0,0 +1,157 @@
+package com.kassa.privates.config;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.annotations.SerializedName;
+import net.fabricmc.loader.api.FabricLoader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class PrivatesConfig {
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final String DATA_FOLDER = "privates";
+    private static final String CONFIG_FILE = "config.json";
+
+    @SerializedName("storageFormat")
+    private String storageFormat = "json";
+
+    @SerializedName("apiUrl")
+    private String apiUrl = "https://48ad-212-47-148-189.ngrok-free.app/items";
+
+    @SerializedName("apiConnectTimeoutSeconds")
+    private int apiConnectTimeoutSeconds = 10;
+
+    @SerializedName("apiRequestTimeoutSeconds")
+    private int apiRequestTimeoutSeconds = 15;
+
+    @SerializedName("apiLatencyBudgetSeconds")
+    private int apiLatencyBudgetSeconds = 30;
+
+    @SerializedName("apiMaxAttempts")
+    private int apiMaxAttempts = 3;
+
+    @SerializedName("apiRetryBaseDelayMillis")
+    private long apiRetryBaseDelayMillis = 250;
+
+    @SerializedName("apiBreakerFailureThreshold")
+    private int apiBreakerFailureThreshold = 5;
+
+    @SerializedName("apiBreakerOpenSeconds")
+    private int apiBreakerOpenSeconds = 30;
+
+    @SerializedName("webhookPort")
+    private int webhookPort = 8081;
+
+    @SerializedName("webhookBacklog")
+    private int webhookBacklog = 128;
+
+    @SerializedName("webhookEventWindow")
+    private int webhookEventWindow = 10000;
+
+    @SerializedName("mutationsPerTick")
+    private int mutationsPerTick = 64;
+
+    @SerializedName("mutationTickBudgetMicros")
+    private long mutationTickBudgetMicros = 2000;
+
+    @SerializedName("protectionMessageCooldownMillis")
+    private long protectionMessageCooldownMillis = 1500;
+
+    @SerializedName("useOutbox")
+    private boolean useOutbox = false;
+
+    @SerializedName("outboxBatchSize")
+    private int outboxBatchSize = 25;
+
+    @SerializedName("outboxFlushIntervalMillis")
+    private long outboxFlushIntervalMillis = 2000;
+
+    @SerializedName("outboxMaxRejections")
+    private int outboxMaxRejections = 5;
+
+    @SerializedName("backupIntervalMinutes")
+    private long backupIntervalMinutes = 60;
+
+    @SerializedName("backupIncrementalsPerFull")
+    private int backupIncrementalsPerFull = 23;
+
+    @SerializedName("backupKeepLatest")
+    private int backupKeepLatest = 3;
+
+    @SerializedName("backupKeepDays")
+    private int backupKeepDays = 7;
+
+    public static PrivatesConfig get() {
+        return Holder.INSTANCE;
+    }
+
+    private static class Holder {
+        private static final PrivatesConfig INSTANCE =
+            load(FabricLoader.getInstance().getConfigDir().resolve(DATA_FOLDER).resolve(CONFIG_FILE));
+    }
+
+    public static PrivatesConfig load(Path configFile) {
+        PrivatesConfig config = null;
+        if (Files.exists(configFile)) {
+            try (Reader reader = Files.newBufferedReader(configFile, StandardCharsets.UTF_8)) {
+                config = GSON.fromJson(reader, PrivatesConfig.class);
+            } catch (Exception e) {
+                System.err.println("Failed to read privates config, using defaults: " + e.getMessage());
+                return new PrivatesConfig();
+            }
+        }
+
+        if (config == null) {
+            config = new PrivatesConfig();
+        }
+
+        // Write the file back so options added in newer versions show up with their defaults.
+        try {
+            Files.createDirectories(configFile.getParent());
+            try (Writer writer = Files.newBufferedWriter(configFile, StandardCharsets.UTF_8)) {
+                GSON.toJson(config, writer);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to write privates config: " + e.getMessage());
+        }
+        return config;
+    }
+
+    public boolean useBinaryStorage() {
+        return "binary".equalsIgnoreCase(storageFormat);
+    }
+
+    public String getApiUrl() { return apiUrl; }
+    public int getApiConnectTimeoutSeconds() { return apiConnectTimeoutSeconds; }
+    public int getApiRequestTimeoutSeconds() { return apiRequestTimeoutSeconds; }
+    public int getApiLatencyBudgetSeconds() { return apiLatencyBudgetSeconds; }
+    public int getApiMaxAttempts() { return apiMaxAttempts; }
+    public long getApiRetryBaseDelayMillis() { return apiRetryBaseDelayMillis; }
+    public int getApiBreakerFailureThreshold() { return apiBreakerFailureThreshold; }
+    public int getApiBreakerOpenSeconds() { return apiBreakerOpenSeconds; }
+
+    public int getWebhookPort() { return webhookPort; }
+    public int getWebhookBacklog() { return webhookBacklog; }
+
+    public int getWebhookEventWindow() { return webhookEventWindow; }
+
+    public int getMutationsPerTick() { return mutationsPerTick; }
+    public long getMutationTickBudgetMicros() { return mutationTickBudgetMicros; }
+
+    public long getProtectionMessageCooldownMillis() { return protectionMessageCooldownMillis; }
+
+    public boolean useOutbox() { return useOutbox; }
+    public int getOutboxBatchSize() { return outboxBatchSize; }
+    public long getOutboxFlushIntervalMillis() { return outboxFlushIntervalMillis; }
+    public int getOutboxMaxRejections() { return outboxMaxRejections; }
+
+    public long getBackupIntervalMinutes() { return backupIntervalMinutes; }
+    public int getBackupIncrementalsPerFull() { return backupIncrementalsPerFull; }
+    public int getBackupKeepLatest() { return backupKeepLatest; }
+    public int getBackupKeepDays() { return backupKeepDays; }
+}
@@ -0,0 +1,245 @@
+package com.kassa.privates.data;
+
+import com.google.gson.Gson;
+import com.google.gson.annotations.SerializedName;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes gzip-compressed zone backups on a background thread.
+ * <p>
+ * Backups form chains: a full backup followed by incremental backups that only hold
+ * the zones changed or removed since the previous backup of the chain. File names
+ * carry the chain's full-backup stamp ({@code zones-<full>-full.json.gz},
+ * {@code zones-<full>-incr-<stamp>.json.gz}) so retention can drop whole chains. Stamps
+ * have millisecond resolution and never repeat, so back-to-back backups get distinct files.
+ */
+public class BackupScheduler {
+    private static final Gson GSON = new Gson();
+    private static final DateTimeFormatter STAMP_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmssSSS");
+    private static final String PREFIX = "zones-";
+    private static final String SUFFIX = ".json.gz";
+
+    private final Path backupDir;
+    private final Supplier<List<PrivateZone>> snapshotSource;
+    private final long intervalMinutes;
+    private final int incrementalsPerFull;
+    private final int keepLatestChains;
+    private final int keepDailyChains;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Privates-Backup");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private Map<String, PrivateZone> lastBackedUp = Map.of();
+    private String chainStamp;
+    private int incrementalsInChain;
+    private long lastStampMillis;
+
+    public BackupScheduler(Path backupDir, Supplier<List<PrivateZone>> snapshotSource, long intervalMinutes,
+                           int incrementalsPerFull, int keepLatestChains, int keepDailyChains) {
+        this.backupDir = backupDir;
+        this.snapshotSource = snapshotSource;
+        this.intervalMinutes = intervalMinutes;
+        this.incrementalsPerFull = incrementalsPerFull;
+        this.keepLatestChains = keepLatestChains;
+        this.keepDailyChains = keepDailyChains;
+    }
+
+    public void start() {
+        if (intervalMinutes <= 0) {
+            System.out.println("Periodic zone backups are disabled");
+            return;
+        }
+        executor.scheduleWithFixedDelay(this::runBackup, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    public void requestFullBackup() {
+        executor.execute(() -> {
+            chainStamp = null;
+            runBackup();
+        });
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void runBackup() {
+        try {
+            long start = System.nanoTime();
+            List<PrivateZone> zones = snapshotSource.get();
+            String stamp = nextStamp();
+
+            Path backupFile;
+            if (chainStamp == null || incrementalsInChain >= incrementalsPerFull) {
+                backupFile = writeFull(zones, stamp);
+            } else {
+                backupFile = writeIncremental(zones, stamp);
+            }
+
+            lastBackedUp = new HashMap<>(zones.size());
+            for (PrivateZone zone : zones) {
+                lastBackedUp.put(zone.getId(), zone);
+            }
+
+            if (backupFile != null) {
+                System.out.println("Created backup " + backupFile + " (" + Files.size(backupFile) + " bytes) in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+                applyRetention();
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to create zone backup: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private String nextStamp() {
+        lastStampMillis = Math.max(System.currentTimeMillis(), lastStampMillis + 1);
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(lastStampMillis), ZoneId.systemDefault()).format(STAMP_FORMAT);
+    }
+
+    private Path writeFull(List<PrivateZone> zones, String stamp) throws IOException {
+        Path backupFile = backupDir.resolve(PREFIX + stamp + "-full" + SUFFIX);
+        writeCompressed(backupFile, zones);
+        chainStamp = stamp;
+        incrementalsInChain = 0;
+        return backupFile;
+    }
+
+    private Path writeIncremental(List<PrivateZone> zones, String stamp) throws IOException {
+        IncrementalBackup delta = new IncrementalBackup();
+        Set<String> seen = new HashSet<>(zones.size());
+        for (PrivateZone zone : zones) {
+            seen.add(zone.getId());
+            // Zones are immutable, so any change shows up as a different instance.
+            if (lastBackedUp.get(zone.getId()) != zone) {
+                delta.changed.add(zone);
+            }
+        }
+        for (String zoneId : lastBackedUp.keySet()) {
+            if (!seen.contains(zoneId)) {
+                delta.removed.add(zoneId);
+            }
+        }
+
+        if (delta.changed.isEmpty() && delta.removed.isEmpty()) {
+            return null;
+        }
+
+        delta.base = PREFIX + chainStamp + "-full" + SUFFIX;
+        Path backupFile = backupDir.resolve(PREFIX + chainStamp + "-incr-" + stamp + SUFFIX);
+        writeCompressed(backupFile, delta);
+        incrementalsInChain++;
+        return backupFile;
+    }
+
+    private void writeCompressed(Path backupFile, Object content) throws IOException {
+        Files.createDirectories(backupDir);
+        Path tempFile = backupFile.resolveSibling(backupFile.getFileName() + ".tmp");
+        try {
+            try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(tempFile)),
+                    StandardCharsets.UTF_8)) {
+                GSON.toJson(content, writer);
+            }
+            DataStorage.moveAtomically(tempFile, backupFile);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+    }
+
+    private void applyRetention() throws IOException {
+        TreeMap<String, List<Path>> chains = new TreeMap<>();
+        try (Stream<Path> files = Files.list(backupDir)) {
+            files.forEach(file -> {
+                String name = file.getFileName().toString();
+                String stamp = name.startsWith(PREFIX) && name.endsWith(SUFFIX) ? chainStampOf(name) : null;
+                if (stamp != null) {
+                    chains.computeIfAbsent(stamp, key -> new ArrayList<>()).add(file);
+                }
+            });
+        }
+
+        Set<String> keep = new HashSet<>();
+        for (String stamp : chains.descendingKeySet()) {
+            if (keep.size() >= keepLatestChains) {
+                break;
+            }
+            keep.add(stamp);
+        }
+
+        LocalDate oldestDay = LocalDate.now().minusDays(keepDailyChains);
+        Set<String> daysKept = new HashSet<>();
+        for (String stamp : chains.descendingKeySet()) {
+            String day = stamp.substring(0, 8);
+            if (LocalDate.parse(day, DateTimeFormatter.BASIC_ISO_DATE).isAfter(oldestDay) && daysKept.add(day)) {
+                keep.add(stamp);
+            }
+        }
+
+        if (chainStamp != null) {
+            keep.add(chainStamp);
+        }
+
+        for (Map.Entry<String, List<Path>> chain : chains.entrySet()) {
+            if (keep.contains(chain.getKey())) {
+                continue;
+            }
+            for (Path file : chain.getValue()) {
+                Files.deleteIfExists(file);
+            }
+            System.out.println("Removed expired backup chain " + chain.getKey());
+        }
+    }
+
+    /**
+     * The chain's full-backup stamp: the date, then the time up to the next dash. Older
+     * backups used second-resolution stamps and are still grouped correctly. Returns null for
+     * names that do not follow the pattern.
+     */
+    private static String chainStampOf(String name) {
+        int timeEnd = name.indexOf('-', PREFIX.length() + 9);
+        return timeEnd < 0 ? null : name.substring(PREFIX.length(), timeEnd);
+    }
+
+    @SuppressWarnings("unused")
+    private static class IncrementalBackup {
+        @SerializedName("base")
+        private String base;
+
+        @SerializedName("createdAt")
+        private long createdAt = System.currentTimeMillis();
+
+        @SerializedName("changed")
+        private final List<PrivateZone> changed = new ArrayList<>();
+
+        @SerializedName("removed")
+        private final List<String> removed = new ArrayList<>();
+    }
+}
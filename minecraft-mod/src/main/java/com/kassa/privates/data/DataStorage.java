@@ -2,27 +2,91 @@ package com.kassa.privates.data;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.kassa.privates.config.PrivatesConfig;
+import com.kassa.privates.metrics.Histogram;
+import com.kassa.privates.metrics.PrivatesMetrics;
 import net.fabricmc.loader.api.FabricLoader;
 
 import java.io.*;
-import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 public class DataStorage {
-    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final Gson GSON = new GsonBuilder()
+        .registerTypeAdapterFactory(PrivateZone.TYPE_ADAPTER_FACTORY)
+        .setPrettyPrinting()
+        .create();
+    private static final Gson JOURNAL_GSON = new GsonBuilder()
+        .registerTypeAdapterFactory(PrivateZone.TYPE_ADAPTER_FACTORY)
+        .create();
     private static final String DATA_FOLDER = "privates";
     private static final String ZONES_FILE = "zones.json";
+    private static final String BINARY_ZONES_FILE = "zones" + ZoneBinaryFormat.FILE_EXTENSION;
+    private static final String JOURNAL_FILE = "zones.journal";
+    private static final String BACKUP_FOLDER = "backups";
+    private static final Histogram SAVE_SECONDS = PrivatesMetrics.STORAGE_SECONDS.labels("save");
+    private static final Histogram LOAD_SECONDS = PrivatesMetrics.STORAGE_SECONDS.labels("load");
+    private static final Histogram SAVE_BYTES = PrivatesMetrics.STORAGE_BYTES.labels("save");
+    private static final Histogram LOAD_BYTES = PrivatesMetrics.STORAGE_BYTES.labels("load");
+    
+    private static final long COMPACTION_THRESHOLD_BYTES = 1024 * 1024;
     
     private final Path dataDir;
     private final Path zonesFile;
+    private final Path otherFormatFile;
+    private final Path journalFile;
+    private final Object ioLock = new Object();
+    private final Queue<ZoneMutation> pendingMutations = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean appendScheduled = new AtomicBoolean();
+    private final ThreadPoolExecutor storageExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "Privates-Storage");
+            thread.setDaemon(true);
+            return thread;
+        });
+    private volatile Supplier<List<PrivateZone>> snapshotSource = List::of;
+    private volatile ProcessedEvents processedEvents;
+    private volatile Supplier<ProcessedEvents.Saved> processedEventsSource;
+    private volatile boolean readOnly;
+    private final BackupScheduler backupScheduler;
     
     public DataStorage() {
-        this.dataDir = FabricLoader.getInstance().getConfigDir().resolve(DATA_FOLDER);
-        this.zonesFile = dataDir.resolve(ZONES_FILE);
+        this(FabricLoader.getInstance().getConfigDir().resolve(DATA_FOLDER), PrivatesConfig.get());
+    }
+
+    public DataStorage(Path dataDir, PrivatesConfig config) {
+        boolean binaryFormat = config.useBinaryStorage();
+        Path jsonFile = dataDir.resolve(ZONES_FILE);
+        Path binaryFile = dataDir.resolve(BINARY_ZONES_FILE);
+        this.dataDir = dataDir;
+        this.zonesFile = binaryFormat ? binaryFile : jsonFile;
+        this.otherFormatFile = binaryFormat ? jsonFile : binaryFile;
+        this.journalFile = dataDir.resolve(JOURNAL_FILE);
+        this.backupScheduler = new BackupScheduler(dataDir.resolve(BACKUP_FOLDER), () -> snapshotSource.get(),
+            config.getBackupIntervalMinutes(), config.getBackupIncrementalsPerFull(),
+            config.getBackupKeepLatest(), config.getBackupKeepDays());
         
         try {
             Files.createDirectories(dataDir);
@@ -30,57 +94,328 @@ public class DataStorage {
             System.err.println("Failed to create privates data directory: " + e.getMessage());
         }
     }
+
+    public void setSnapshotSource(Supplier<List<PrivateZone>> snapshotSource) {
+        this.snapshotSource = snapshotSource;
+    }
     
-    public void saveZones(List<PrivateZone> zones) {
-        try (FileWriter writer = new FileWriter(zonesFile.toFile())) {
-            GSON.toJson(zones, writer);
-            System.out.println("Saved " + zones.size() + " private zones to " + zonesFile);
+    /**
+     * Event ids are journaled with the ownership changes they caused. Replay feeds them back
+     * into {@code processedEvents}, and compaction writes {@code source} next to the new
+     * snapshot. {@code source} is read before the zones, so it must never contain an event
+     * whose change is not yet visible to the snapshot source.
+     */
+    public void setProcessedEvents(ProcessedEvents processedEvents, Supplier<ProcessedEvents.Saved> source) {
+        this.processedEventsSource = source;
+        this.processedEvents = processedEvents;
+    }
+
+    /**
+     * Stops every write to the zone files. Used when loading failed, so whatever is in memory
+     * never replaces the data that could not be read.
+     */
+    public void disableWrites() {
+        readOnly = true;
+    }
+
+    public void append(ZoneMutation mutation) {
+        append(List.of(mutation));
+    }
+
+    /**
+     * Queues several records so they reach the journal in the same write and flush.
+     */
+    public void append(List<ZoneMutation> mutations) {
+        if (readOnly) {
+            System.err.println("Zone storage is read-only, dropping " + mutations.size() + " zone mutations");
+            return;
+        }
+        pendingMutations.addAll(mutations);
+        if (appendScheduled.compareAndSet(false, true)) {
+            try {
+                storageExecutor.execute(this::drainJournal);
+            } catch (RejectedExecutionException e) {
+                drainJournal();
+            }
+        }
+    }
+
+    public void startBackups() {
+        backupScheduler.start();
+    }
+
+    public void shutdown() {
+        backupScheduler.shutdown();
+        storageExecutor.shutdown();
+        try {
+            if (!storageExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                System.err.println("Timed out waiting for pending journal writes");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        compact();
+    }
+
+    /**
+     * Writes every queued record now instead of waiting for the storage thread.
+     */
+    void flushJournal() {
+        synchronized (ioLock) {
+            writePendingMutations();
+        }
+    }
+
+    private void drainJournal() {
+        appendScheduled.set(false);
+        synchronized (ioLock) {
+            writePendingMutations();
+        }
+
+        try {
+            if (Files.exists(journalFile) && Files.size(journalFile) > COMPACTION_THRESHOLD_BYTES) {
+                compact();
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to check journal size: " + e.getMessage());
+        }
+    }
+
+    private void writePendingMutations() {
+        StringBuilder records = new StringBuilder();
+        int count = 0;
+        ZoneMutation mutation;
+        while ((mutation = pendingMutations.poll()) != null) {
+            records.append(JOURNAL_GSON.toJson(mutation)).append('\n');
+            count++;
+        }
+        if (count == 0) {
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(journalFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(records.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
         } catch (IOException e) {
-            System.err.println("Failed to save private zones: " + e.getMessage());
+            System.err.println("Failed to append " + count + " zone mutations to journal: " + e.getMessage());
             e.printStackTrace();
         }
     }
+
+    /**
+     * Writes the current zones as a fresh snapshot and empties the journal. Records
+     * still queued at this point were already published to the snapshot source, and
+     * replaying them on top of the new snapshot is harmless.
+     */
+    public void compact() {
+        if (readOnly) {
+            return;
+        }
+        ProcessedEvents events = processedEvents;
+        ProcessedEvents.Saved savedEvents = events == null ? null : processedEventsSource.get();
+        synchronized (ioLock) {
+            writePendingMutations();
+            if (!Files.exists(journalFile)) {
+                return;
+            }
+
+            if (saveZones(snapshotSource.get()) && (events == null || events.save(savedEvents))) {
+                try {
+                    Files.deleteIfExists(journalFile);
+                } catch (IOException e) {
+                    System.err.println("Failed to truncate zone journal: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    public boolean saveZones(List<PrivateZone> zones) {
+        if (readOnly) {
+            System.err.println("Zone storage is read-only, not saving " + zones.size() + " zones");
+            return false;
+        }
+        synchronized (ioLock) {
+            long start = System.nanoTime();
+            Path tempFile = zonesFile.resolveSibling(zonesFile.getFileName() + ".tmp");
+            try {
+                if (ZoneBinaryFormat.isBinary(zonesFile)) {
+                    ZoneBinaryFormat.write(zones, tempFile);
+                } else {
+                    try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                        GSON.toJson(zones, writer);
+                    }
+                }
+                moveAtomically(tempFile, zonesFile);
+
+                long elapsedNanos = System.nanoTime() - start;
+                long bytes = Files.size(zonesFile);
+                SAVE_SECONDS.record(elapsedNanos);
+                SAVE_BYTES.record(bytes);
+                System.out.println("Saved " + zones.size() + " private zones to " + zonesFile
+                    + " (" + bytes + " bytes) in " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms");
+                return true;
+            } catch (IOException e) {
+                System.err.println("Failed to save private zones: " + e.getMessage());
+                e.printStackTrace();
+                return false;
+            }
+        }
+    }
+
+    static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
     
+    /**
+     * Reads the snapshot and replays the journal on top of it. Throws if either cannot be
+     * read, rather than returning fewer zones than are stored.
+     */
     public List<PrivateZone> loadZones() {
-        if (!Files.exists(zonesFile)) {
+        long start = System.nanoTime();
+        Map<String, PrivateZone> zonesById = new LinkedHashMap<>();
+        for (PrivateZone zone : loadSnapshot()) {
+            zonesById.put(zone.getId(), zone);
+        }
+
+        int replayed = replayJournal(zonesById);
+        if (replayed > 0) {
+            System.out.println("Replayed " + replayed + " journaled zone mutations on top of " + zonesFile);
+        }
+        LOAD_SECONDS.recordSince(start);
+        return new ArrayList<>(zonesById.values());
+    }
+
+    /**
+     * Applies every complete journal record. A crash can leave the last record cut off
+     * without its newline; the file is truncated back to the end of the last complete
+     * record so the next append starts on a fresh line instead of being glued onto it.
+     * Complete lines that are not a valid mutation are skipped, since every record stands
+     * on its own.
+     */
+    private int replayJournal(Map<String, PrivateZone> zonesById) {
+        if (!Files.exists(journalFile)) {
+            return 0;
+        }
+
+        byte[] journal;
+        try {
+            journal = Files.readAllBytes(journalFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read zone journal " + journalFile, e);
+        }
+
+        int replayed = 0;
+        int start = 0;
+        int end;
+        while (start < journal.length && (end = indexOf(journal, (byte) '\n', start)) >= 0) {
+            String line = new String(journal, start, end - start, StandardCharsets.UTF_8);
+            start = end + 1;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            ZoneMutation mutation;
+            try {
+                mutation = JOURNAL_GSON.fromJson(line, ZoneMutation.class);
+            } catch (JsonParseException e) {
+                mutation = null;
+            }
+            if (mutation == null || !mutation.isValid()) {
+                System.err.println("Skipping unreadable zone journal record: " + line);
+                continue;
+            }
+            mutation.applyTo(zonesById);
+            ProcessedEvents events = processedEvents;
+            if (events != null && mutation.getEventId() != null) {
+                events.record(mutation.getEventId(), mutation.getZoneId(), mutation.getBlockNumber(),
+                    mutation.getLogIndex());
+            }
+            replayed++;
+        }
+
+        if (start < journal.length) {
+            System.err.println("Dropping " + (journal.length - start) + " bytes of a torn record at the end of "
+                + journalFile);
+            try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+                channel.truncate(start);
+                channel.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to truncate torn zone journal record", e);
+            }
+        }
+        return replayed;
+    }
+
+    private static int indexOf(byte[] bytes, byte value, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private List<PrivateZone> loadSnapshot() {
+        Path sourceFile = zonesFile;
+        if (!Files.exists(sourceFile) && Files.exists(otherFormatFile)) {
+            System.out.println("Zones file " + zonesFile + " not found, migrating from " + otherFormatFile);
+            sourceFile = otherFormatFile;
+        }
+
+        if (!Files.exists(sourceFile)) {
             System.out.println("Zones file doesn't exist, starting with empty list");
             return new ArrayList<>();
         }
         
-        try (FileReader reader = new FileReader(zonesFile.toFile())) {
-            Type listType = new TypeToken<List<PrivateZone>>(){}.getType();
-            List<PrivateZone> zones = GSON.fromJson(reader, listType);
-            
-            if (zones == null) {
-                zones = new ArrayList<>();
-            }
+        try {
+            LOAD_BYTES.record(Files.size(sourceFile));
+            List<PrivateZone> zones = ZoneBinaryFormat.isBinary(sourceFile)
+                ? ZoneBinaryFormat.read(sourceFile)
+                : readJson(sourceFile);
             
-            System.out.println("Loaded " + zones.size() + " private zones from " + zonesFile);
+            System.out.println("Loaded " + zones.size() + " private zones from " + sourceFile);
             return zones;
         } catch (IOException e) {
-            System.err.println("Failed to load private zones: " + e.getMessage());
-            e.printStackTrace();
-            return new ArrayList<>();
-        } catch (Exception e) {
-            System.err.println("Failed to parse private zones JSON: " + e.getMessage());
-            e.printStackTrace();
-            return new ArrayList<>();
+            throw new UncheckedIOException("Failed to load private zones from " + sourceFile, e);
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Failed to parse private zones from " + sourceFile, e);
         }
     }
-    
-    public void createBackup() {
-        if (!Files.exists(zonesFile)) {
-            return;
+
+    private static List<PrivateZone> readJson(Path file) throws IOException {
+        TypeAdapter<PrivateZone> zoneAdapter = GSON.getAdapter(PrivateZone.class);
+        List<PrivateZone> zones = new ArrayList<>();
+        if (Files.size(file) == 0) {
+            return zones;
         }
-        
-        try {
-            String timestamp = String.valueOf(System.currentTimeMillis());
-            Path backupFile = dataDir.resolve("zones_backup_" + timestamp + ".json");
-            Files.copy(zonesFile, backupFile);
-            System.out.println("Created backup: " + backupFile);
-        } catch (IOException e) {
-            System.err.println("Failed to create backup: " + e.getMessage());
+
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+            if (reader.peek() == JsonToken.NULL) {
+                return zones;
+            }
+
+            reader.beginArray();
+            while (reader.hasNext()) {
+                zones.add(zoneAdapter.read(reader));
+            }
+            reader.endArray();
         }
+        return zones;
+    }
+    
+    /**
+     * Queues a full backup on the backup thread; returns immediately.
+     */
+    public void createBackup() {
+        backupScheduler.requestFullBackup();
     }
     
     public boolean dataExists() {
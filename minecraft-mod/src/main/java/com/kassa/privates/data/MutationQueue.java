@@ -0,0 +1,95 @@
+package com.kassa.privates.data;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CancellationException;
+import java.util.function.Supplier;
+
+/**
+ * Zone mutations submitted from other threads, applied on the server thread at the end of
+ * each tick. Producers never block; {@link #drain()} stops once the tick has used up its
+ * mutation count or time budget and leaves the rest for the next tick.
+ */
+public class MutationQueue {
+    private final ConcurrentLinkedQueue<Task<?>> queue = new ConcurrentLinkedQueue<>();
+    private final int maxMutationsPerTick;
+    private final long tickBudgetNanos;
+    private volatile boolean closed;
+
+    private static class Task<T> {
+        private final Supplier<T> mutation;
+        private final int weight;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        Task(Supplier<T> mutation, int weight) {
+            this.mutation = mutation;
+            this.weight = weight;
+        }
+
+        void run() {
+            try {
+                future.complete(mutation.get());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }
+    }
+
+    public MutationQueue(int maxMutationsPerTick, long tickBudgetNanos) {
+        this.maxMutationsPerTick = Math.max(1, maxMutationsPerTick);
+        this.tickBudgetNanos = tickBudgetNanos;
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> mutation) {
+        return submit(mutation, 1);
+    }
+
+    /**
+     * Queues {@code mutation}, counting it as {@code weight} mutations against the tick budget.
+     * The future completes on the server thread once the mutation has run.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> mutation, int weight) {
+        Task<T> task = new Task<>(mutation, Math.max(1, weight));
+        if (closed) {
+            task.future.completeExceptionally(new CancellationException("Server is shutting down"));
+            return task.future;
+        }
+        queue.add(task);
+        return task.future;
+    }
+
+    /**
+     * Runs queued mutations in submission order until the per-tick budget is spent. At least
+     * one mutation runs per call, so an oversized one cannot stall the queue.
+     */
+    public int drain() {
+        long start = System.nanoTime();
+        int applied = 0;
+        Task<?> task;
+        while ((task = queue.peek()) != null) {
+            if (applied > 0 && (applied + task.weight > maxMutationsPerTick
+                    || System.nanoTime() - start >= tickBudgetNanos)) {
+                break;
+            }
+            queue.poll();
+            task.run();
+            applied += task.weight;
+        }
+        return applied;
+    }
+
+    /**
+     * Rejects new submissions and fails everything still queued.
+     */
+    public void close() {
+        closed = true;
+        Task<?> task;
+        while ((task = queue.poll()) != null) {
+            task.future.completeExceptionally(new CancellationException("Server is shutting down"));
+        }
+    }
+
+    public int size() {
+        return queue.size();
+    }
+}
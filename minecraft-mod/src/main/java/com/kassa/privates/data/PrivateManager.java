@@ -1,29 +1,75 @@
 package com.kassa.privates.data;
 
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.util.Identifier;
 import net.minecraft.util.math.BlockPos;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.kassa.privates.api.ApiService;
+import com.kassa.privates.api.ZoneOutbox;
+import com.kassa.privates.config.PrivatesConfig;
 
 public class PrivateManager {
-    private static PrivateManager instance;
-    private final Map<String, BlockPos> playerFirstPoints = new HashMap<>();
-    private final Map<String, BlockPos> playerSecondPoints = new HashMap<>();
-    private final List<PrivateZone> privateZones = new ArrayList<>();
+    private static final String OUTBOX_FILE = "outbox.jsonl";
+    private static final String EVENTS_FILE = "processed-events.json";
+
+    private final Map<String, BlockPos> playerFirstPoints = new ConcurrentHashMap<>();
+    private final Map<String, BlockPos> playerSecondPoints = new ConcurrentHashMap<>();
+    private final Map<String, PrivateZone> pendingCreations = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private volatile ZoneSnapshot snapshot = ZoneSnapshot.EMPTY;
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+    private final AtomicBoolean loadingStarted = new AtomicBoolean();
     private final DataStorage dataStorage;
+    private final ZoneOutbox outbox;
+    private final MutationQueue mutationQueue;
+    private final ProcessedEvents processedEvents;
 
     private PrivateManager() {
-        this.dataStorage = new DataStorage();
-        loadZones();
+        this(new DataStorage(), PrivatesConfig.get());
+    }
+
+    /**
+     * Standalone manager over {@code dataStorage}, for running without a game server (see the
+     * load simulator). The mod itself always goes through {@link #getInstance()}.
+     */
+    public PrivateManager(DataStorage dataStorage, PrivatesConfig config) {
+        this.dataStorage = dataStorage;
+        this.dataStorage.setSnapshotSource(() -> snapshot.getZones());
+
+        this.outbox = config.useOutbox()
+            ? new ZoneOutbox(dataStorage.getDataPath().resolveSibling(OUTBOX_FILE),
+                config.getOutboxBatchSize(), config.getOutboxFlushIntervalMillis(), config.getOutboxMaxRejections())
+            : null;
+        this.mutationQueue = new MutationQueue(config.getMutationsPerTick(),
+            TimeUnit.MICROSECONDS.toNanos(config.getMutationTickBudgetMicros()));
+        this.processedEvents = new ProcessedEvents(dataStorage.getDataPath().resolveSibling(EVENTS_FILE),
+            config.getWebhookEventWindow());
+        // Captured under the write lock so every event in it has already been published.
+        this.dataStorage.setProcessedEvents(processedEvents, () -> {
+            synchronized (writeLock) {
+                return processedEvents.capture();
+            }
+        });
     }
     
     public static PrivateManager getInstance() {
-        if (instance == null) {
-            instance = new PrivateManager();
-        }
-        return instance;
+        return Holder.INSTANCE;
+    }
+
+    private static class Holder {
+        private static final PrivateManager INSTANCE = new PrivateManager();
     }
     
     public void setFirstPoint(ServerPlayerEntity player, BlockPos pos) {
@@ -60,56 +106,102 @@ public class PrivateManager {
         playerSecondPoints.remove(uuid);
     }
 
-    public PrivateZone findIntersectingZone(BlockPos pos1, BlockPos pos2, String worldName) {
-        PrivateZone tempZone = new PrivateZone(
-            "temp", "", "", worldName, pos1, pos2
-        );
-        
-        for (PrivateZone existingZone : privateZones) {
-            if (tempZone.intersectsWith(existingZone)) {
-                return existingZone;
-            }
-        }
-        
-        return null;
+    public List<PrivateZone> findIntersectingZones(BlockPos pos1, BlockPos pos2, Identifier worldId) {
+        return current().findIntersecting(worldId,
+            Math.min(pos1.getX(), pos2.getX()),
+            Math.min(pos1.getY(), pos2.getY()),
+            Math.min(pos1.getZ(), pos2.getZ()),
+            Math.max(pos1.getX(), pos2.getX()),
+            Math.max(pos1.getY(), pos2.getY()),
+            Math.max(pos1.getZ(), pos2.getZ()));
     }
 
-    public ZoneCreationResult createPrivateZone(String name, ServerPlayerEntity owner) {
+    /**
+     * Starts creating a zone from the player's selection. The selected region is reserved
+     * until the external service answers, so no other create can claim it in the meantime.
+     * The returned future completes on the server thread.
+     */
+    public CompletableFuture<ZoneCreationResult> createPrivateZone(String name, ServerPlayerEntity owner) {
         if (!hasBothPoints(owner)) {
-            return new ZoneCreationResult(false, "No selection points set", null);
+            return CompletableFuture.completedFuture(new ZoneCreationResult(false, "No selection points set", null));
+        }
+        
+        String ownerUuid = owner.getUuidAsString();
+        if (pendingCreations.containsKey(ownerUuid)) {
+            return CompletableFuture.completedFuture(
+                new ZoneCreationResult(false, "Another zone creation is still in progress", null));
         }
         
         if (getPlayerZoneByName(owner, name) != null) {
-            return new ZoneCreationResult(false, "Zone with this name already exists", null);
+            return CompletableFuture.completedFuture(
+                new ZoneCreationResult(false, "Zone with this name already exists", null));
         }
         
         BlockPos pos1 = getFirstPoint(owner);
         BlockPos pos2 = getSecondPoint(owner);
-        String worldName = owner.getServerWorld().getRegistryKey().getValue().toString();
+        Identifier worldId = owner.getServerWorld().getRegistryKey().getValue();
+
+        List<PrivateZone> intersectingZones = findIntersectingZones(pos1, pos2, worldId);
+        if (!intersectingZones.isEmpty()) {
+            return CompletableFuture.completedFuture(
+                new ZoneCreationResult(false, "Zone intersects with existing zone", null, intersectingZones));
+        }
         
         PrivateZone newZone  = new PrivateZone(
             name,
-            owner.getUuidAsString(),
+            ownerUuid,
             owner.getName().getString(),
-            worldName,
+            worldId.toString(),
             pos1,
             pos2
         );
 
-        for (PrivateZone existingZone : privateZones) {
-            if (newZone.intersectsWith(existingZone)) {
-                return new ZoneCreationResult(false, "Zone intersects with existing zone", null);
+        for (PrivateZone reserved : pendingCreations.values()) {
+            if (reserved.getWorldId().equals(worldId) && reserved.intersects(newZone.getMinX(), newZone.getMinY(),
+                    newZone.getMinZ(), newZone.getMaxX(), newZone.getMaxY(), newZone.getMaxZ())) {
+                return CompletableFuture.completedFuture(new ZoneCreationResult(false,
+                    "Another player is currently claiming part of this area", null));
             }
         }
+        pendingCreations.put(ownerUuid, newZone);
 
+        MinecraftServer server = owner.getServer();
+        CompletableFuture<ZoneCreationResult> result = new CompletableFuture<>();
 
-        System.out.println("Sending zone creation request to external API...");
-        ApiService.ApiResponse apiResponse = ApiService.createZone(
-            name, 
-            owner, 
-            newZone.getId()
-        );
+        CompletableFuture<ApiService.ApiResponse> registration;
+        if (outbox != null) {
+            // Stored locally first; the outbox delivers it to the backend in the background.
+            registration = outbox.enqueue(newZone.getId(),
+                new ApiService.ZoneCreateRequest(name, newZone.getOwnerName(), ownerUuid, newZone.getId()));
+        } else {
+            System.out.println("Sending zone creation request to external API...");
+            registration = ApiService.createZoneAsync(name, newZone.getOwnerName(), ownerUuid, newZone.getId());
+        }
+        // Always lands on the server thread, so the reservation is released however registration ends.
+        registration.whenComplete((apiResponse, error) -> server.execute(() -> {
+            ZoneCreationResult creation;
+            try {
+                creation = error == null ? finishCreation(newZone, apiResponse) : failCreation(newZone, error);
+            } catch (RuntimeException e) {
+                creation = failCreation(newZone, e);
+            }
+            result.complete(creation);
+        }));
         
+        return result;
+    }
+
+    private ZoneCreationResult failCreation(PrivateZone newZone, Throwable error) {
+        pendingCreations.remove(newZone.getOwnerUuid(), newZone);
+
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        System.err.println("Zone creation for '" + newZone.getName() + "' failed: " + cause.getMessage());
+        return new ZoneCreationResult(false, "Zone creation failed: " + cause.getMessage(), null);
+    }
+
+    private ZoneCreationResult finishCreation(PrivateZone newZone, ApiService.ApiResponse apiResponse) {
+        pendingCreations.remove(newZone.getOwnerUuid(), newZone);
+
         if (!apiResponse.isSuccess()) {
             System.err.println("External API rejected zone creation: " + apiResponse.getMessage());
             return new ZoneCreationResult(false, 
@@ -118,95 +210,361 @@ public class PrivateManager {
         
         System.out.println("External API approved zone creation, saving zone...");
         
-        privateZones.add(newZone);
-        saveZones();
+        awaitReady();
+        synchronized (writeLock) {
+            publish(snapshot.edit().add(newZone), ZoneMutation.create(newZone));
+        }
         
-        clearPoints(owner);
+        playerFirstPoints.remove(newZone.getOwnerUuid());
+        playerSecondPoints.remove(newZone.getOwnerUuid());
 
         return new ZoneCreationResult(true, "Zone created successfully", newZone);
     }
 
+    public boolean hasPendingCreation(ServerPlayerEntity player) {
+        return pendingCreations.containsKey(player.getUuidAsString());
+    }
+
     public boolean changeZoneOwner(String zoneUuid, String newOwnerUuid, String newOwnerName) {
         System.out.println("Attempting to change zone owner. Zone UUID: " + zoneUuid + ", New Owner: " + newOwnerUuid);
         
-        PrivateZone targetZone = null;
-        for (PrivateZone zone : privateZones) {
-            if (zone.getId().equals(zoneUuid)) {
-                targetZone = zone;
-                break;
+        OwnerChangeResult result = changeZoneOwners(List.of(new OwnerChange(zoneUuid, newOwnerUuid, newOwnerName)))[0];
+        return result.isSuccess();
+    }
+
+    public enum OwnerChangeResult {
+        APPLIED(true, "Zone ownership changed successfully"),
+        UNCHANGED(true, "Zone already has this owner"),
+        DUPLICATE(true, "Event was already processed"),
+        STALE(true, "A newer event for this zone was already processed"),
+        NOT_FOUND(false, "Zone not found");
+
+        private final boolean success;
+        private final String message;
+
+        OwnerChangeResult(boolean success, String message) {
+            this.success = success;
+            this.message = message;
+        }
+
+        public boolean isSuccess() { return success; }
+        public String getMessage() { return message; }
+    }
+
+    /**
+     * Applies every change in {@code changes} with a single snapshot publish and journal flush.
+     * Changes that carry an event id already seen, that are older than the last event applied
+     * to their zone, or that would not change anything are skipped without touching storage.
+     */
+    public OwnerChangeResult[] changeZoneOwners(List<OwnerChange> changes) {
+        OwnerChangeResult[] results = new OwnerChangeResult[changes.size()];
+        
+        awaitReady();
+        synchronized (writeLock) {
+            ZoneSnapshot.Editor editor = snapshot.edit();
+            List<ZoneMutation> mutations = new ArrayList<>(changes.size());
+            
+            for (int i = 0; i < changes.size(); i++) {
+                OwnerChange change = changes.get(i);
+                results[i] = applyOwnerChange(editor, change, mutations);
+                if (results[i] != OwnerChangeResult.APPLIED && results[i] != OwnerChangeResult.NOT_FOUND) {
+                    System.out.println("Skipping ownership change for zone " + change.getZoneUuid() + ": "
+                        + results[i].getMessage());
+                }
+            }
+            
+            if (!mutations.isEmpty()) {
+                publish(editor, mutations);
+            }
+            if (changes.size() > 1) {
+                System.out.println("Applied " + mutations.size() + " of " + changes.size() + " batched ownership changes");
             }
         }
+        return results;
+    }
+
+    private OwnerChangeResult applyOwnerChange(ZoneSnapshot.Editor editor, OwnerChange change,
+                                               List<ZoneMutation> mutations) {
+        String eventId = change.getEventId();
+        if (eventId != null && processedEvents.isDuplicate(eventId)) {
+            return OwnerChangeResult.DUPLICATE;
+        }
         
+        PrivateZone targetZone = editor.get(change.getZoneUuid());
         if (targetZone == null) {
-            System.err.println("Zone with UUID " + zoneUuid + " not found");
-            return false;
+            System.err.println("Zone with UUID " + change.getZoneUuid() + " not found");
+            return OwnerChangeResult.NOT_FOUND;
         }
         
-        String oldOwner = targetZone.getOwnerName();
+        if (change.getBlockNumber() != null && processedEvents.isStale(targetZone.getId(),
+                change.getBlockNumber(), change.getLogIndex() == null ? 0 : change.getLogIndex())) {
+            return OwnerChangeResult.STALE;
+        }
         
-        targetZone.setOwnerUuid(newOwnerUuid);
-        targetZone.setOwnerName(newOwnerName);
+        OwnerChangeResult result = OwnerChangeResult.UNCHANGED;
+        if (!change.getNewOwnerUuid().equals(targetZone.getOwnerUuid())
+                || !change.getNewOwnerName().equals(targetZone.getOwnerName())) {
+            PrivateZone updatedZone = targetZone.withOwner(change.getNewOwnerUuid(), change.getNewOwnerName());
+            editor.replace(targetZone, updatedZone);
+            mutations.add(ZoneMutation.ownerChange(updatedZone, eventId, change.getBlockNumber(),
+                change.getLogIndex()));
+            result = OwnerChangeResult.APPLIED;
+            
+            System.out.println("Zone '" + targetZone.getName() + "' ownership changed from '"
+                + targetZone.getOwnerName() + "' to '" + change.getNewOwnerName() + "'");
+        }
         
-        saveZones();
+        if (eventId != null) {
+            processedEvents.record(eventId, targetZone.getId(), change.getBlockNumber(), change.getLogIndex());
+        }
+        return result;
+    }
+
+    public static class OwnerChange {
+        private final String zoneUuid;
+        private final String newOwnerUuid;
+        private final String newOwnerName;
+        private final String eventId;
+        private final Long blockNumber;
+        private final Long logIndex;
         
-        System.out.println("Zone '" + targetZone.getName() + "' ownership changed from '" + oldOwner + "' to '" + newOwnerName + "'");
-        return true;
+        public OwnerChange(String zoneUuid, String newOwnerUuid, String newOwnerName) {
+            this(zoneUuid, newOwnerUuid, newOwnerName, null, null, null);
+        }
+
+        public OwnerChange(String zoneUuid, String newOwnerUuid, String newOwnerName,
+                           String eventId, Long blockNumber, Long logIndex) {
+            this.zoneUuid = zoneUuid;
+            this.newOwnerUuid = newOwnerUuid;
+            this.newOwnerName = newOwnerName;
+            this.eventId = eventId;
+            this.blockNumber = blockNumber;
+            this.logIndex = logIndex;
+        }
+        
+        public String getZoneUuid() { return zoneUuid; }
+        public String getNewOwnerUuid() { return newOwnerUuid; }
+        public String getNewOwnerName() { return newOwnerName; }
+        public String getEventId() { return eventId; }
+        public Long getBlockNumber() { return blockNumber; }
+        public Long getLogIndex() { return logIndex; }
+    }
+
+    /**
+     * Grants {@code flags} ({@link ZonePermission} bits) in the zone to a member, replacing any
+     * earlier grant; {@link ZonePermission#NONE} removes the member. Returns the updated zone, or
+     * null if the zone no longer exists.
+     */
+    public PrivateZone setMemberPermissions(String zoneId, String memberUuid, String memberName, int flags) {
+        awaitReady();
+        synchronized (writeLock) {
+            ZoneSnapshot.Editor editor = snapshot.edit();
+            PrivateZone zone = editor.get(zoneId);
+            if (zone == null) {
+                return null;
+            }
+
+            PrivateZone updatedZone = zone.withMember(memberUuid, memberName, flags);
+            editor.replace(zone, updatedZone);
+            publish(editor, ZoneMutation.members(updatedZone));
+            return updatedZone;
+        }
     }
 
     public PrivateZone getZoneByUuid(String zoneUuid) {
-        return privateZones.stream()
-            .filter(zone -> zone.getId().equals(zoneUuid))
-            .findFirst()
-            .orElse(null);
+        return current().getById(zoneUuid);
     }
 
     public static class ZoneCreationResult {
         private final boolean success;
         private final String message;
         private final PrivateZone zone;
+        private final List<PrivateZone> intersectingZones;
         
         public ZoneCreationResult(boolean success, String message, PrivateZone zone) {
+            this(success, message, zone, List.of());
+        }
+
+        public ZoneCreationResult(boolean success, String message, PrivateZone zone,
+                                  List<PrivateZone> intersectingZones) {
             this.success = success;
             this.message = message;
             this.zone = zone;
+            this.intersectingZones = intersectingZones;
         }
         
         public boolean isSuccess() { return success; }
         public String getMessage() { return message; }
         public PrivateZone getZone() { return zone; }
+        public List<PrivateZone> getIntersectingZones() { return intersectingZones; }
     }
 
     public PrivateZone getPlayerZoneByName(ServerPlayerEntity player, String name) {
-        String playerUuid = player.getUuidAsString();
-        return privateZones.stream()
-            .filter(zone -> zone.getOwnerUuid().equals(playerUuid))
-            .filter(zone -> zone.getName().equals(name))
-            .findFirst()
-            .orElse(null);
+        return current().getByOwnerAndName(player.getUuidAsString(), name);
     }
 
-    public PrivateZone getZoneAtPosition(BlockPos pos, String worldName) {
-        return privateZones.stream()
-            .filter(zone -> zone.containsBlock(pos, worldName))
-            .findFirst()
-            .orElse(null);
+    public PrivateZone getZoneAtPosition(BlockPos pos, Identifier worldId) {
+        return getZoneAt(worldId, pos.getX(), pos.getY(), pos.getZ());
+    }
+
+    public PrivateZone getZoneAt(Identifier worldId, int x, int y, int z) {
+        return current().getZoneAt(worldId, x, y, z);
+    }
+
+    public boolean isRegionFree(Identifier worldId, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        return !current().intersectsAny(worldId, minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    /**
+     * Zones overlapping the box, packed for repeated point lookups inside it. Usually empty, in
+     * which case callers can skip per-block work entirely.
+     */
+    public ZoneCell getZonesInRegion(Identifier worldId, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        List<PrivateZone> zones = current().findIntersecting(worldId, minX, minY, minZ, maxX, maxY, maxZ);
+        return zones.isEmpty() ? ZoneCell.EMPTY : ZoneCell.of(zones);
+    }
+
+    /**
+     * Zones overlapping the bounding box of {@code positions}, from a single index query.
+     */
+    public ZoneCell getZonesAround(Identifier worldId, Collection<BlockPos> positions) {
+        if (positions.isEmpty()) {
+            return ZoneCell.EMPTY;
+        }
+
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+        for (BlockPos pos : positions) {
+            minX = Math.min(minX, pos.getX());
+            minY = Math.min(minY, pos.getY());
+            minZ = Math.min(minZ, pos.getZ());
+            maxX = Math.max(maxX, pos.getX());
+            maxY = Math.max(maxY, pos.getY());
+            maxZ = Math.max(maxZ, pos.getZ());
+        }
+        return getZonesInRegion(worldId, minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    /**
+     * Removes every position that lies inside a zone from {@code positions}, in place, and
+     * returns how many were removed.
+     */
+    public int removeProtectedPositions(Identifier worldId, List<BlockPos> positions) {
+        ZoneCell zones = getZonesAround(worldId, positions);
+        if (zones.size() == 0) {
+            return 0;
+        }
+
+        int before = positions.size();
+        positions.removeIf(pos -> zones.indexOf(pos.getX(), pos.getY(), pos.getZ()) >= 0);
+        return before - positions.size();
+    }
+
+    public long getZoneEpoch() {
+        return current().getVersion();
     }
 
     public List<PrivateZone> getPlayerZones(ServerPlayerEntity player) {
-        String playerUuid = player.getUuidAsString();
-        return privateZones.stream()
-            .filter(zone -> zone.getOwnerUuid().equals(playerUuid))
-            .sorted((a, b) -> a.getName().compareToIgnoreCase(b.getName()))
-            .toList();
+        return current().getByOwner(player.getUuidAsString());
+    }
+
+    public ZoneSnapshot getSnapshot() {
+        return current();
+    }
+
+    public Map<String, Integer> countZonesByWorld() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (PrivateZone zone : snapshot.getZones()) {
+            counts.merge(zone.getWorldName(), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    private void publish(ZoneSnapshot.Editor editor, ZoneMutation mutation) {
+        publish(editor, List.of(mutation));
+    }
+
+    private void publish(ZoneSnapshot.Editor editor, List<ZoneMutation> mutations) {
+        snapshot = editor.build(snapshot.getVersion() + 1);
+        dataStorage.append(mutations);
+    }
+
+    /**
+     * Queue for changes coming from outside the server thread; drained at the end of each tick.
+     */
+    public MutationQueue getMutationQueue() {
+        return mutationQueue;
+    }
+
+    public void shutdown() {
+        mutationQueue.close();
+        if (outbox != null) {
+            outbox.shutdown();
+        }
+        if (loadingStarted.get()) {
+            ready.exceptionally(t -> null).join();
+            dataStorage.shutdown();
+        }
     }
 
-    private void saveZones() {
-        dataStorage.saveZones(privateZones);
+    /**
+     * Starts reading the zone files on a background thread. Safe to call more than once;
+     * only the first call triggers a load.
+     */
+    public void startLoading() {
+        if (!loadingStarted.compareAndSet(false, true)) {
+            return;
+        }
+
+        Thread loader = new Thread(() -> {
+            try {
+                long start = System.nanoTime();
+                List<PrivateZone> loadedZones = dataStorage.loadZones();
+                ZoneSnapshot loaded = ZoneSnapshot.of(loadedZones, 1);
+                synchronized (writeLock) {
+                    snapshot = loaded;
+                }
+                System.out.println("Indexed " + loaded.size() + " private zones in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+                ready.complete(null);
+                dataStorage.startBackups();
+                if (outbox != null) {
+                    outbox.start();
+                }
+            } catch (Throwable t) {
+                System.err.println("Failed to load private zones: " + t.getMessage());
+                t.printStackTrace();
+                dataStorage.disableWrites();
+                ready.completeExceptionally(t);
+            }
+        }, "Privates-Loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    public boolean isReady() {
+        return ready.isDone() && !ready.isCompletedExceptionally();
+    }
+
+    /**
+     * Blocks until the zones are loaded. Throws {@link IllegalStateException} if loading
+     * failed; there is no empty fallback, since that would leave every zone unprotected.
+     */
+    public void awaitReady() {
+        if (!ready.isDone()) {
+            startLoading();
+            System.out.println("Waiting for private zones to finish loading...");
+        }
+
+        try {
+            ready.join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Private zones failed to load", e.getCause());
+        }
     }
 
-    private void loadZones() {
-        List<PrivateZone> loadedZones = dataStorage.loadZones();
-        privateZones.clear();
-        privateZones.addAll(loadedZones);
+    private ZoneSnapshot current() {
+        awaitReady();
+        return snapshot;
     }
-}
\ No newline at end of file
+}
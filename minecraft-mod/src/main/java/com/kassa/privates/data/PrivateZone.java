@@ -1,11 +1,53 @@
 package com.kassa.privates.data;
 
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMaps;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.util.Identifier;
 import net.minecraft.util.math.BlockPos;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 public class PrivateZone {
+    /**
+     * Gson creates zones through the no-arg constructor and fills {@code members} afterwards,
+     * which would leave the member lookup empty. Every Gson instance that reads zones must
+     * register this factory so loaded zones are rebuilt with their member flags.
+     */
+    public static final TypeAdapterFactory TYPE_ADAPTER_FACTORY = new TypeAdapterFactory() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            if (type.getRawType() != PrivateZone.class) {
+                return null;
+            }
+            TypeAdapter<PrivateZone> delegate = gson.getDelegateAdapter(this, TypeToken.get(PrivateZone.class));
+            return (TypeAdapter<T>) new TypeAdapter<PrivateZone>() {
+                @Override
+                public void write(JsonWriter out, PrivateZone zone) throws IOException {
+                    delegate.write(out, zone);
+                }
+
+                @Override
+                public PrivateZone read(JsonReader in) throws IOException {
+                    PrivateZone zone = delegate.read(in);
+                    return zone == null ? null : zone.withMembers(zone.members);
+                }
+            };
+        }
+    };
+
     @SerializedName("id")
     private String id;
     
@@ -43,8 +85,40 @@ public class PrivateZone {
     
     @SerializedName("createdAt")
     private long createdAt;
+
+    @SerializedName("members")
+    private List<ZoneMember> members;
+
+    private transient Identifier worldId;
+    private transient UUID ownerId;
+    private final transient Object2IntMap<UUID> memberFlags;
     
     public PrivateZone() {
+        this.memberFlags = Object2IntMaps.emptyMap();
+    }
+
+    public PrivateZone(String id, String name, String ownerUuid, String ownerName, String worldName,
+                       int minX, int minY, int minZ, int maxX, int maxY, int maxZ, long createdAt) {
+        this(id, name, ownerUuid, ownerName, worldName, minX, minY, minZ, maxX, maxY, maxZ, createdAt, null);
+    }
+
+    private PrivateZone(String id, String name, String ownerUuid, String ownerName, String worldName,
+                        int minX, int minY, int minZ, int maxX, int maxY, int maxZ, long createdAt,
+                        List<ZoneMember> members) {
+        this.id = id;
+        this.name = name;
+        this.ownerUuid = ownerUuid;
+        this.ownerName = ownerName;
+        this.worldName = worldName;
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+        this.createdAt = createdAt;
+        this.members = members == null || members.isEmpty() ? null : List.copyOf(members);
+        this.memberFlags = buildMemberFlags(this.members);
     }
     
     public PrivateZone(String name, String ownerUuid, String ownerName, String worldName, 
@@ -62,6 +136,7 @@ public class PrivateZone {
         this.maxX = Math.max(pos1.getX(), pos2.getX());
         this.maxY = Math.max(pos1.getY(), pos2.getY());
         this.maxZ = Math.max(pos1.getZ(), pos2.getZ());
+        this.memberFlags = Object2IntMaps.emptyMap();
     }
     
     public String getId() { return id; }
@@ -77,22 +152,111 @@ public class PrivateZone {
     public int getMaxZ() { return maxZ; }
     public long getCreatedAt() { return createdAt; }
 
-    public void setOwnerUuid(String ownerUuid) { this.ownerUuid = ownerUuid; }
-    public void setOwnerName(String ownerName) { this.ownerName = ownerName; }
+    public Identifier getWorldId() {
+        if (worldId == null) {
+            worldId = Identifier.of(worldName);
+        }
+        return worldId;
+    }
+
+    /**
+     * Transfers the zone. Members and their permission flags carry over to the new owner.
+     */
+    public PrivateZone withOwner(String newOwnerUuid, String newOwnerName) {
+        PrivateZone copy = new PrivateZone(id, name, newOwnerUuid, newOwnerName, worldName,
+            minX, minY, minZ, maxX, maxY, maxZ, createdAt, members);
+        copy.worldId = worldId;
+        return copy;
+    }
+
+    public List<ZoneMember> getMembers() {
+        return members == null ? List.of() : members;
+    }
+
+    public ZoneMember getMember(String uuid) {
+        for (ZoneMember member : getMembers()) {
+            if (member.getUuid().equals(uuid)) {
+                return member;
+            }
+        }
+        return null;
+    }
+
+    public PrivateZone withMembers(List<ZoneMember> newMembers) {
+        PrivateZone copy = new PrivateZone(id, name, ownerUuid, ownerName, worldName,
+            minX, minY, minZ, maxX, maxY, maxZ, createdAt, newMembers);
+        copy.worldId = worldId;
+        copy.ownerId = ownerId;
+        return copy;
+    }
+
+    /**
+     * Grants {@code flags} to the player, replacing any earlier grant; {@link ZonePermission#NONE}
+     * removes them from the zone.
+     */
+    public PrivateZone withMember(String uuid, String memberName, int flags) {
+        List<ZoneMember> newMembers = new ArrayList<>(getMembers());
+        newMembers.removeIf(member -> member.getUuid().equals(uuid));
+        if (flags != ZonePermission.NONE) {
+            newMembers.add(new ZoneMember(uuid, memberName, flags));
+        }
+        return withMembers(newMembers);
+    }
+
+    /**
+     * Whether the player holds every permission bit in {@code permissions}. The owner may do
+     * anything; members are looked up in a hash map built with the zone.
+     */
+    public boolean isAllowed(UUID player, int permissions) {
+        if (isOwner(player)) {
+            return true;
+        }
+        return (memberFlags.getInt(player) & permissions) == permissions;
+    }
+
+    private static Object2IntMap<UUID> buildMemberFlags(List<ZoneMember> members) {
+        if (members == null) {
+            return Object2IntMaps.emptyMap();
+        }
+        Object2IntOpenHashMap<UUID> flags = new Object2IntOpenHashMap<>(members.size());
+        for (ZoneMember member : members) {
+            flags.put(parseOwnerId(member.getUuid()), member.getFlags());
+        }
+        return flags;
+    }
     
     
     public boolean isOwner(String uuid) {
         return ownerUuid.equals(uuid);
     }
+
+    public boolean isOwner(UUID uuid) {
+        if (ownerId == null) {
+            ownerId = parseOwnerId(ownerUuid);
+        }
+        return ownerId.equals(uuid);
+    }
+
+    private static UUID parseOwnerId(String ownerUuid) {
+        try {
+            return UUID.fromString(ownerUuid);
+        } catch (IllegalArgumentException e) {
+            return UUID.nameUUIDFromBytes(ownerUuid.getBytes(StandardCharsets.UTF_8));
+        }
+    }
     
     public boolean containsBlock(BlockPos pos, String world) {
         if (!worldName.equals(world)) {
             return false;
         }
         
-        return pos.getX() >= minX && pos.getX() <= maxX &&
-               pos.getY() >= minY && pos.getY() <= maxY &&
-               pos.getZ() >= minZ && pos.getZ() <= maxZ;
+        return containsBlock(pos.getX(), pos.getY(), pos.getZ());
+    }
+
+    public boolean containsBlock(int x, int y, int z) {
+        return x >= minX && x <= maxX &&
+               y >= minY && y <= maxY &&
+               z >= minZ && z <= maxZ;
     }
 
     public boolean intersectsWith(PrivateZone other) {
@@ -100,9 +264,14 @@ public class PrivateZone {
             return false;
         }
         
-        boolean noOverlapX = this.maxX < other.minX || this.minX > other.maxX;
-        boolean noOverlapY = this.maxY < other.minY || this.minY > other.maxY;
-        boolean noOverlapZ = this.maxZ < other.minZ || this.minZ > other.maxZ;
+        return intersects(other.minX, other.minY, other.minZ, other.maxX, other.maxY, other.maxZ);
+    }
+
+    public boolean intersects(int otherMinX, int otherMinY, int otherMinZ,
+                              int otherMaxX, int otherMaxY, int otherMaxZ) {
+        boolean noOverlapX = this.maxX < otherMinX || this.minX > otherMaxX;
+        boolean noOverlapY = this.maxY < otherMinY || this.minY > otherMaxY;
+        boolean noOverlapZ = this.maxZ < otherMinZ || this.minZ > otherMaxZ;
         
         return !(noOverlapX || noOverlapY || noOverlapZ);
     }
@@ -0,0 +1,136 @@
+package com.kassa.privates.data;
+
+import com.google.gson.Gson;
+import com.google.gson.annotations.SerializedName;
+
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers which blockchain events have already been applied so redelivered webhooks can
+ * be skipped. Keeps the most recent {@code capacity} event ids and, per zone, the chain
+ * position (block number, log index) of the last applied event so that older events
+ * arriving late are recognised as stale.
+ * <p>
+ * An event id reaches disk inside the journal record of the ownership change it caused and is
+ * replayed from there by {@link DataStorage}. This file is only rewritten when the journal is
+ * compacted, so an id is never persisted without its change.
+ */
+public class ProcessedEvents {
+    private static final Gson GSON = new Gson();
+
+    private final Path file;
+    private final int capacity;
+    private final LinkedHashSet<String> eventIds = new LinkedHashSet<>();
+    private final Map<String, Position> lastPositions = new HashMap<>();
+
+    private static class Position {
+        @SerializedName("block")
+        private long blockNumber;
+
+        @SerializedName("log")
+        private long logIndex;
+
+        Position(long blockNumber, long logIndex) {
+            this.blockNumber = blockNumber;
+            this.logIndex = logIndex;
+        }
+
+        boolean isAfter(long otherBlock, long otherLog) {
+            return blockNumber > otherBlock || (blockNumber == otherBlock && logIndex >= otherLog);
+        }
+    }
+
+    public static class Saved {
+        @SerializedName("events")
+        private List<String> eventIds;
+
+        @SerializedName("positions")
+        private Map<String, Position> lastPositions;
+    }
+
+    public ProcessedEvents(Path file, int capacity) {
+        this.file = file;
+        this.capacity = Math.max(1, capacity);
+        load();
+    }
+
+    public synchronized boolean isDuplicate(String eventId) {
+        return eventIds.contains(eventId);
+    }
+
+    /**
+     * Returns true when an event at or after this chain position was already applied to the zone.
+     */
+    public synchronized boolean isStale(String zoneId, long blockNumber, long logIndex) {
+        Position last = lastPositions.get(zoneId);
+        return last != null && last.isAfter(blockNumber, logIndex);
+    }
+
+    public synchronized void record(String eventId, String zoneId, Long blockNumber, Long logIndex) {
+        eventIds.add(eventId);
+        if (eventIds.size() > capacity) {
+            String eldest = eventIds.iterator().next();
+            eventIds.remove(eldest);
+        }
+        if (blockNumber != null) {
+            lastPositions.put(zoneId, new Position(blockNumber, logIndex == null ? 0 : logIndex));
+        }
+    }
+
+    public synchronized Saved capture() {
+        Saved saved = new Saved();
+        saved.eventIds = new ArrayList<>(eventIds);
+        saved.lastPositions = new HashMap<>(lastPositions);
+        return saved;
+    }
+
+    /**
+     * Atomically replaces the file with {@code saved}; returns false if it could not be written.
+     */
+    public boolean save(Saved saved) {
+        try {
+            Files.createDirectories(file.getParent());
+            Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                GSON.toJson(saved, writer);
+            }
+            DataStorage.moveAtomically(tempFile, file);
+            return true;
+        } catch (Exception e) {
+            System.err.println("Failed to save processed webhook events: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Saved saved = GSON.fromJson(reader, Saved.class);
+            if (saved == null) {
+                return;
+            }
+            if (saved.eventIds != null) {
+                List<String> recent = saved.eventIds.subList(Math.max(0, saved.eventIds.size() - capacity),
+                    saved.eventIds.size());
+                eventIds.addAll(recent);
+            }
+            if (saved.lastPositions != null) {
+                lastPositions.putAll(saved.lastPositions);
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to read processed webhook events, starting empty: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.kassa.privates.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable hash map split into a fixed number of shards. {@link #edit()} copies only the
+ * shard array and clones a shard the first time the editor writes to it, so a single change
+ * costs about {@code size / 256} entries instead of a copy of the whole map.
+ */
+public final class ShardedMap<K, V> {
+    private static final int SHARD_BITS = 8;
+    private static final int SHARDS = 1 << SHARD_BITS;
+    private static final ShardedMap<?, ?> EMPTY = new ShardedMap<>(emptyShards(), 0);
+
+    private final Map<K, V>[] shards;
+    private final int size;
+
+    private ShardedMap(Map<K, V>[] shards, int size) {
+        this.shards = shards;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> ShardedMap<K, V> empty() {
+        return (ShardedMap<K, V>) EMPTY;
+    }
+
+    public V get(Object key) {
+        return shards[shardOf(key)].get(key);
+    }
+
+    public V getOrDefault(Object key, V defaultValue) {
+        V value = get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public List<V> values() {
+        List<V> values = new ArrayList<>(size);
+        for (Map<K, V> shard : shards) {
+            values.addAll(shard.values());
+        }
+        return values;
+    }
+
+    public Editor<K, V> edit() {
+        return new Editor<>(this);
+    }
+
+    private static int shardOf(Object key) {
+        return (key.hashCode() * 0x9E3779B9) >>> (Integer.SIZE - SHARD_BITS);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <K, V> Map<K, V>[] emptyShards() {
+        Map<K, V>[] shards = new Map[SHARDS];
+        Arrays.fill(shards, Map.of());
+        return shards;
+    }
+
+    public static final class Editor<K, V> {
+        private final Map<K, V>[] shards;
+        private final boolean[] owned = new boolean[SHARDS];
+        private int size;
+        private boolean built;
+
+        private Editor(ShardedMap<K, V> base) {
+            this.shards = base.shards.clone();
+            this.size = base.size;
+        }
+
+        public V get(Object key) {
+            return shards[shardOf(key)].get(key);
+        }
+
+        public void put(K key, V value) {
+            if (writableShard(key).put(key, value) == null) {
+                size++;
+            }
+        }
+
+        public void remove(K key) {
+            int shard = shardOf(key);
+            if (shards[shard].containsKey(key)) {
+                writableShard(key).remove(key);
+                size--;
+            }
+        }
+
+        public ShardedMap<K, V> build() {
+            if (built) {
+                throw new IllegalStateException("Map has already been built");
+            }
+            built = true;
+            return new ShardedMap<>(shards, size);
+        }
+
+        private Map<K, V> writableShard(K key) {
+            if (built) {
+                throw new IllegalStateException("Map has already been built");
+            }
+            int shard = shardOf(key);
+            if (!owned[shard]) {
+                owned[shard] = true;
+                shards[shard] = new HashMap<>(shards[shard]);
+            }
+            return shards[shard];
+        }
+    }
+}
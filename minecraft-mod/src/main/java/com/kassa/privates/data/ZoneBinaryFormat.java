@@ -0,0 +1,276 @@
+package com.kassa.privates.data;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding of the zone list.
+ * <pre>
+ * int    magic ("PZNB")
+ * int    format version
+ * table  world names
+ * table  owner ids
+ * table  owner display names
+ * int    zone count
+ * zone*  id, name, owner/ownerName/world table indexes, min/max bounds, createdAt,
+ *        member count, member* (id, name, permission flags byte)
+ * </pre>
+ * Tables are an int count followed by entries. Ids that are canonical UUIDs are
+ * stored as two longs, anything else falls back to a UTF string. Version 1 files
+ * (no members) are still read.
+ */
+public class ZoneBinaryFormat {
+    public static final String FILE_EXTENSION = ".bin";
+
+    private static final int MAGIC = 0x505A4E42;
+    private static final int VERSION = 2;
+    private static final int VERSION_WITHOUT_MEMBERS = 1;
+    private static final byte ID_UUID = 0;
+    private static final byte ID_STRING = 1;
+    private static final Gson GSON = new GsonBuilder()
+        .registerTypeAdapterFactory(PrivateZone.TYPE_ADAPTER_FACTORY)
+        .setPrettyPrinting()
+        .create();
+
+    public static void write(List<PrivateZone> zones, OutputStream output) throws IOException {
+        StringTable worlds = new StringTable();
+        StringTable owners = new StringTable();
+        StringTable ownerNames = new StringTable();
+        for (PrivateZone zone : zones) {
+            worlds.indexOf(zone.getWorldName());
+            owners.indexOf(zone.getOwnerUuid());
+            ownerNames.indexOf(zone.getOwnerName());
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+
+        out.writeInt(worlds.values.size());
+        for (String world : worlds.values) {
+            out.writeUTF(world);
+        }
+        out.writeInt(owners.values.size());
+        for (String owner : owners.values) {
+            writeId(out, owner);
+        }
+        out.writeInt(ownerNames.values.size());
+        for (String ownerName : ownerNames.values) {
+            writeNullableUTF(out, ownerName);
+        }
+
+        out.writeInt(zones.size());
+        for (PrivateZone zone : zones) {
+            writeId(out, zone.getId());
+            out.writeUTF(zone.getName());
+            out.writeInt(owners.indexOf(zone.getOwnerUuid()));
+            out.writeInt(ownerNames.indexOf(zone.getOwnerName()));
+            out.writeInt(worlds.indexOf(zone.getWorldName()));
+            out.writeInt(zone.getMinX());
+            out.writeInt(zone.getMinY());
+            out.writeInt(zone.getMinZ());
+            out.writeInt(zone.getMaxX());
+            out.writeInt(zone.getMaxY());
+            out.writeInt(zone.getMaxZ());
+            out.writeLong(zone.getCreatedAt());
+
+            List<ZoneMember> members = zone.getMembers();
+            out.writeShort(members.size());
+            for (ZoneMember member : members) {
+                writeId(out, member.getUuid());
+                writeNullableUTF(out, member.getName());
+                out.writeByte(member.getFlags());
+            }
+        }
+        out.flush();
+    }
+
+    public static List<PrivateZone> read(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(input));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a privates zone file");
+        }
+        int version = in.readInt();
+        if (version != VERSION && version != VERSION_WITHOUT_MEMBERS) {
+            throw new IOException("Unsupported zone file version " + version);
+        }
+
+        String[] worlds = new String[in.readInt()];
+        for (int i = 0; i < worlds.length; i++) {
+            worlds[i] = in.readUTF();
+        }
+        String[] owners = new String[in.readInt()];
+        for (int i = 0; i < owners.length; i++) {
+            owners[i] = readId(in);
+        }
+        String[] ownerNames = new String[in.readInt()];
+        for (int i = 0; i < ownerNames.length; i++) {
+            ownerNames[i] = readNullableUTF(in);
+        }
+
+        int count = in.readInt();
+        List<PrivateZone> zones = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String id = readId(in);
+            String name = in.readUTF();
+            String owner = owners[in.readInt()];
+            String ownerName = ownerNames[in.readInt()];
+            String world = worlds[in.readInt()];
+            PrivateZone zone = new PrivateZone(id, name, owner, ownerName, world,
+                in.readInt(), in.readInt(), in.readInt(),
+                in.readInt(), in.readInt(), in.readInt(),
+                in.readLong());
+
+            if (version >= VERSION) {
+                int memberCount = in.readUnsignedShort();
+                if (memberCount > 0) {
+                    List<ZoneMember> members = new ArrayList<>(memberCount);
+                    for (int m = 0; m < memberCount; m++) {
+                        members.add(new ZoneMember(readId(in), readNullableUTF(in), in.readUnsignedByte()));
+                    }
+                    zone = zone.withMembers(members);
+                }
+            }
+            zones.add(zone);
+        }
+        return zones;
+    }
+
+    public static List<PrivateZone> read(Path file) throws IOException {
+        try (InputStream input = Files.newInputStream(file)) {
+            return read(input);
+        }
+    }
+
+    public static void write(List<PrivateZone> zones, Path file) throws IOException {
+        try (OutputStream output = Files.newOutputStream(file)) {
+            write(zones, output);
+        }
+    }
+
+    /**
+     * Rewrites {@code source} into {@code target}, picking each format from the file
+     * extension. The target is written to a temp file first and moved into place.
+     */
+    public static void convert(Path source, Path target) throws IOException {
+        List<PrivateZone> zones;
+        if (isBinary(source)) {
+            zones = read(source);
+        } else {
+            try (Reader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+                zones = GSON.fromJson(reader, new TypeToken<List<PrivateZone>>(){}.getType());
+            } catch (JsonParseException e) {
+                throw new IOException("Malformed zone file " + source + ": " + e.getMessage(), e);
+            }
+            if (zones == null) {
+                throw new IOException("Zone file " + source + " is empty");
+            }
+        }
+
+        Path tempFile = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            if (isBinary(target)) {
+                write(zones, tempFile);
+            } else {
+                try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                    GSON.toJson(zones, writer);
+                }
+            }
+            DataStorage.moveAtomically(tempFile, target);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        System.out.println("Converted " + zones.size() + " zones from " + source + " to " + target);
+    }
+
+    public static boolean isBinary(Path file) {
+        return file.getFileName().toString().endsWith(FILE_EXTENSION);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: ZoneBinaryFormat <zones.json|zones.bin> <zones.bin|zones.json>");
+            System.exit(1);
+        }
+        convert(Path.of(args[0]), Path.of(args[1]));
+    }
+
+    private static void writeId(DataOutputStream out, String value) throws IOException {
+        UUID uuid = parseCanonicalUuid(value);
+        if (uuid != null) {
+            out.writeByte(ID_UUID);
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        } else {
+            out.writeByte(ID_STRING);
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readId(DataInputStream in) throws IOException {
+        byte kind = in.readByte();
+        if (kind == ID_UUID) {
+            return new UUID(in.readLong(), in.readLong()).toString();
+        }
+        return in.readUTF();
+    }
+
+    private static void writeNullableUTF(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableUTF(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static UUID parseCanonicalUuid(String value) {
+        if (value == null || value.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(value);
+            return uuid.toString().equals(value) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static class StringTable {
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int indexOf(String value) {
+            Integer index = indexes.get(value);
+            if (index == null) {
+                index = values.size();
+                indexes.put(value, index);
+                values.add(value);
+            }
+            return index;
+        }
+    }
+}
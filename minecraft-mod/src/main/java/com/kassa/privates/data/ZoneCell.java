@@ -0,0 +1,133 @@
+package com.kassa.privates.data;
+
+import java.util.Collection;
+
+/**
+ * Immutable group of zones whose bounds are packed into a single int array (minX, minY, minZ,
+ * maxX, maxY, maxZ per zone), so the hot scans read one contiguous block of memory instead of
+ * dereferencing every {@link PrivateZone}. Each bounds test ORs the six signed distances and
+ * checks the sign bit, leaving the loop exit as the only branch.
+ * <p>
+ * Coordinates stay within the world border (about 30 million), so the differences cannot overflow.
+ */
+public final class ZoneCell {
+    public static final ZoneCell EMPTY = new ZoneCell(new PrivateZone[0], new int[0]);
+
+    private static final int STRIDE = 6;
+
+    private final PrivateZone[] zones;
+    private final int[] bounds;
+
+    private ZoneCell(PrivateZone[] zones, int[] bounds) {
+        this.zones = zones;
+        this.bounds = bounds;
+    }
+
+    public static ZoneCell of(Collection<PrivateZone> zones) {
+        PrivateZone[] array = zones.toArray(new PrivateZone[0]);
+        int[] bounds = new int[array.length * STRIDE];
+        for (int i = 0; i < array.length; i++) {
+            pack(bounds, i, array[i]);
+        }
+        return new ZoneCell(array, bounds);
+    }
+
+    public int size() {
+        return zones.length;
+    }
+
+    public PrivateZone get(int index) {
+        return zones[index];
+    }
+
+    public int getMinX(int index) {
+        return bounds[index * STRIDE];
+    }
+
+    public int getMinZ(int index) {
+        return bounds[index * STRIDE + 2];
+    }
+
+    public ZoneCell with(PrivateZone zone) {
+        PrivateZone[] newZones = new PrivateZone[zones.length + 1];
+        System.arraycopy(zones, 0, newZones, 0, zones.length);
+        newZones[zones.length] = zone;
+
+        int[] newBounds = new int[bounds.length + STRIDE];
+        System.arraycopy(bounds, 0, newBounds, 0, bounds.length);
+        pack(newBounds, zones.length, zone);
+        return new ZoneCell(newZones, newBounds);
+    }
+
+    /**
+     * Returns a cell without {@code zone} (compared by identity), or this cell if it is not here.
+     */
+    public ZoneCell without(PrivateZone zone) {
+        for (int i = 0; i < zones.length; i++) {
+            if (zones[i] == zone) {
+                if (zones.length == 1) {
+                    return EMPTY;
+                }
+
+                PrivateZone[] newZones = new PrivateZone[zones.length - 1];
+                System.arraycopy(zones, 0, newZones, 0, i);
+                System.arraycopy(zones, i + 1, newZones, i, zones.length - i - 1);
+
+                int[] newBounds = new int[bounds.length - STRIDE];
+                System.arraycopy(bounds, 0, newBounds, 0, i * STRIDE);
+                System.arraycopy(bounds, (i + 1) * STRIDE, newBounds, i * STRIDE, bounds.length - (i + 1) * STRIDE);
+                return new ZoneCell(newZones, newBounds);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Index of the first zone containing the block, or -1.
+     */
+    public int indexOf(int x, int y, int z) {
+        int[] b = bounds;
+        for (int i = 0, o = 0; o < b.length; i++, o += STRIDE) {
+            int distances = (x - b[o]) | (y - b[o + 1]) | (z - b[o + 2])
+                | (b[o + 3] - x) | (b[o + 4] - y) | (b[o + 5] - z);
+            if (distances >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public PrivateZone getZoneAt(int x, int y, int z) {
+        int index = indexOf(x, y, z);
+        return index < 0 ? null : zones[index];
+    }
+
+    public boolean intersects(int index, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        int o = index * STRIDE;
+        int[] b = bounds;
+        return ((b[o + 3] - minX) | (b[o + 4] - minY) | (b[o + 5] - minZ)
+            | (maxX - b[o]) | (maxY - b[o + 1]) | (maxZ - b[o + 2])) >= 0;
+    }
+
+    public boolean intersectsAny(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        int[] b = bounds;
+        for (int o = 0; o < b.length; o += STRIDE) {
+            int distances = (b[o + 3] - minX) | (b[o + 4] - minY) | (b[o + 5] - minZ)
+                | (maxX - b[o]) | (maxY - b[o + 1]) | (maxZ - b[o + 2]);
+            if (distances >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void pack(int[] bounds, int index, PrivateZone zone) {
+        int o = index * STRIDE;
+        bounds[o] = zone.getMinX();
+        bounds[o + 1] = zone.getMinY();
+        bounds[o + 2] = zone.getMinZ();
+        bounds[o + 3] = zone.getMaxX();
+        bounds[o + 4] = zone.getMaxY();
+        bounds[o + 5] = zone.getMaxZ();
+    }
+}
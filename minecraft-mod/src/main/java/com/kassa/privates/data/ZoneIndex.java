@@ -0,0 +1,303 @@
+package com.kassa.privates.data;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.ChunkPos;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-world grid of zones keyed by chunk column, each cell a {@link ZoneCell} with packed
+ * bounds. Zones covering more than {@link #MAX_INDEXED_CHUNKS} chunks are kept in a separate
+ * cell instead.
+ * <p>
+ * {@link #copy()} shares the per-world grids with the original. The first time the copy
+ * modifies a world it clones that world's shard table, and then only the shards it writes to.
+ */
+public class ZoneIndex {
+    private static final int MAX_INDEXED_CHUNKS = 1024;
+
+    private final Map<Identifier, WorldIndex> worlds;
+    private final Set<Identifier> ownedWorlds = new HashSet<>();
+
+    public ZoneIndex() {
+        this.worlds = new HashMap<>();
+    }
+
+    private ZoneIndex(Map<Identifier, WorldIndex> worlds) {
+        this.worlds = new HashMap<>(worlds);
+    }
+
+    /**
+     * Builds an index over {@code zones}, constructing the grid of each world in parallel.
+     */
+    public static ZoneIndex build(Collection<PrivateZone> zones) {
+        Map<Identifier, List<PrivateZone>> zonesByWorld = new HashMap<>();
+        for (PrivateZone zone : zones) {
+            zonesByWorld.computeIfAbsent(zone.getWorldId(), world -> new ArrayList<>()).add(zone);
+        }
+
+        Map<Identifier, WorldIndex> worlds = new ConcurrentHashMap<>();
+        zonesByWorld.entrySet().parallelStream().forEach(entry -> {
+            WorldIndex worldIndex = new WorldIndex();
+            for (PrivateZone zone : entry.getValue()) {
+                worldIndex.add(zone);
+            }
+            worlds.put(entry.getKey(), worldIndex);
+        });
+        return new ZoneIndex(worlds);
+    }
+
+    public ZoneIndex copy() {
+        return new ZoneIndex(worlds);
+    }
+
+    public void add(PrivateZone zone) {
+        writableWorld(zone.getWorldId()).add(zone);
+    }
+
+    public void remove(PrivateZone zone) {
+        if (worlds.containsKey(zone.getWorldId())) {
+            writableWorld(zone.getWorldId()).remove(zone);
+        }
+    }
+
+    public void clear() {
+        worlds.clear();
+        ownedWorlds.clear();
+    }
+
+    private WorldIndex writableWorld(Identifier worldId) {
+        WorldIndex worldIndex = worlds.get(worldId);
+        if (ownedWorlds.add(worldId)) {
+            worldIndex = worldIndex == null ? new WorldIndex() : new WorldIndex(worldIndex);
+            worlds.put(worldId, worldIndex);
+        }
+        return worldIndex;
+    }
+
+    public PrivateZone getZoneAt(Identifier worldId, int x, int y, int z) {
+        WorldIndex worldIndex = worlds.get(worldId);
+        if (worldIndex == null) {
+            return null;
+        }
+        return worldIndex.getZoneAt(x, y, z);
+    }
+
+    public List<PrivateZone> findIntersecting(Identifier worldId, int minX, int minY, int minZ,
+                                              int maxX, int maxY, int maxZ) {
+        List<PrivateZone> result = new ArrayList<>();
+        WorldIndex worldIndex = worlds.get(worldId);
+        if (worldIndex != null) {
+            worldIndex.findIntersecting(minX, minY, minZ, maxX, maxY, maxZ, result);
+        }
+        return result;
+    }
+
+    public boolean intersectsAny(Identifier worldId, int minX, int minY, int minZ,
+                                 int maxX, int maxY, int maxZ) {
+        WorldIndex worldIndex = worlds.get(worldId);
+        return worldIndex != null && worldIndex.intersectsAny(minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    /**
+     * Cells are spread over {@link #SHARDS} maps by 8x8-chunk region, so a zone's cells fall in
+     * one or a few shards. A copy shares every shard and clones one only when it first writes
+     * to it, so editing a zone costs about the size of the shards it touches.
+     */
+    private static class WorldIndex {
+        private static final int SHARD_BITS = 8;
+        private static final int SHARDS = 1 << SHARD_BITS;
+        private static final int REGION_SHIFT = 3;
+
+        private final Long2ObjectOpenHashMap<ZoneCell>[] shards;
+        private final boolean[] ownedShards = new boolean[SHARDS];
+        private int cellCount;
+        private ZoneCell largeZones = ZoneCell.EMPTY;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        WorldIndex() {
+            this.shards = new Long2ObjectOpenHashMap[SHARDS];
+        }
+
+        WorldIndex(WorldIndex other) {
+            this.shards = other.shards.clone();
+            this.cellCount = other.cellCount;
+            this.largeZones = other.largeZones;
+        }
+
+        void add(PrivateZone zone) {
+            if (isLarge(zone)) {
+                largeZones = largeZones.with(zone);
+                return;
+            }
+
+            for (int cx = zone.getMinX() >> 4; cx <= zone.getMaxX() >> 4; cx++) {
+                for (int cz = zone.getMinZ() >> 4; cz <= zone.getMaxZ() >> 4; cz++) {
+                    long key = ChunkPos.toLong(cx, cz);
+                    Long2ObjectOpenHashMap<ZoneCell> shard = writableShard(cx, cz);
+                    ZoneCell cell = shard.get(key);
+                    if (cell == null) {
+                        cell = ZoneCell.EMPTY;
+                        cellCount++;
+                    }
+                    shard.put(key, cell.with(zone));
+                }
+            }
+        }
+
+        void remove(PrivateZone zone) {
+            if (isLarge(zone)) {
+                largeZones = largeZones.without(zone);
+                return;
+            }
+
+            for (int cx = zone.getMinX() >> 4; cx <= zone.getMaxX() >> 4; cx++) {
+                for (int cz = zone.getMinZ() >> 4; cz <= zone.getMaxZ() >> 4; cz++) {
+                    long key = ChunkPos.toLong(cx, cz);
+                    ZoneCell cell = getCell(cx, cz);
+                    if (cell == null) {
+                        continue;
+                    }
+
+                    ZoneCell remaining = cell.without(zone);
+                    if (remaining == cell) {
+                        continue;
+                    }
+                    if (remaining.size() == 0) {
+                        writableShard(cx, cz).remove(key);
+                        cellCount--;
+                    } else {
+                        writableShard(cx, cz).put(key, remaining);
+                    }
+                }
+            }
+        }
+
+        private ZoneCell getCell(int cx, int cz) {
+            Long2ObjectOpenHashMap<ZoneCell> shard = shards[shardOf(cx, cz)];
+            return shard == null ? null : shard.get(ChunkPos.toLong(cx, cz));
+        }
+
+        private Long2ObjectOpenHashMap<ZoneCell> writableShard(int cx, int cz) {
+            int index = shardOf(cx, cz);
+            if (!ownedShards[index]) {
+                ownedShards[index] = true;
+                Long2ObjectOpenHashMap<ZoneCell> shard = shards[index];
+                shards[index] = shard == null ? new Long2ObjectOpenHashMap<>() : new Long2ObjectOpenHashMap<>(shard);
+            }
+            return shards[index];
+        }
+
+        private static int shardOf(int cx, int cz) {
+            int region = (cx >> REGION_SHIFT) * 0x1F1F1F1F ^ (cz >> REGION_SHIFT);
+            return (region * 0x9E3779B9) >>> (Integer.SIZE - SHARD_BITS);
+        }
+
+        PrivateZone getZoneAt(int x, int y, int z) {
+            ZoneCell cell = getCell(x >> 4, z >> 4);
+            if (cell != null) {
+                PrivateZone zone = cell.getZoneAt(x, y, z);
+                if (zone != null) {
+                    return zone;
+                }
+            }
+            return largeZones.getZoneAt(x, y, z);
+        }
+
+        void findIntersecting(int minX, int minY, int minZ, int maxX, int maxY, int maxZ,
+                              List<PrivateZone> result) {
+            int minCx = minX >> 4;
+            int minCz = minZ >> 4;
+            int maxCx = maxX >> 4;
+            int maxCz = maxZ >> 4;
+
+            if ((long) (maxCx - minCx + 1) * (maxCz - minCz + 1) > cellCount) {
+                findIntersectingInAllCells(minX, minY, minZ, maxX, maxY, maxZ, result);
+            } else {
+                findIntersectingInCells(minX, minY, minZ, maxX, maxY, maxZ, result);
+            }
+
+            for (int i = 0; i < largeZones.size(); i++) {
+                if (largeZones.intersects(i, minX, minY, minZ, maxX, maxY, maxZ)) {
+                    result.add(largeZones.get(i));
+                }
+            }
+        }
+
+        private void findIntersectingInCells(int minX, int minY, int minZ, int maxX, int maxY, int maxZ,
+                                             List<PrivateZone> result) {
+            int minCx = minX >> 4;
+            int minCz = minZ >> 4;
+            int maxCx = maxX >> 4;
+            int maxCz = maxZ >> 4;
+
+            for (int cx = minCx; cx <= maxCx; cx++) {
+                for (int cz = minCz; cz <= maxCz; cz++) {
+                    ZoneCell cell = getCell(cx, cz);
+                    if (cell == null) {
+                        continue;
+                    }
+
+                    for (int i = 0; i < cell.size(); i++) {
+                        // A zone sits in every cell it covers; only report it from the first shared one.
+                        boolean firstSharedCell = cx == Math.max(minCx, cell.getMinX(i) >> 4)
+                            && cz == Math.max(minCz, cell.getMinZ(i) >> 4);
+                        if (firstSharedCell && cell.intersects(i, minX, minY, minZ, maxX, maxY, maxZ)) {
+                            result.add(cell.get(i));
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * For boxes covering more chunks than the world has cells: visits every cell once and
+         * reports each zone from the cell at its own minimum corner.
+         */
+        private void findIntersectingInAllCells(int minX, int minY, int minZ, int maxX, int maxY, int maxZ,
+                                                List<PrivateZone> result) {
+            for (Long2ObjectOpenHashMap<ZoneCell> shard : shards) {
+                if (shard == null) {
+                    continue;
+                }
+                for (Long2ObjectMap.Entry<ZoneCell> entry : shard.long2ObjectEntrySet()) {
+                    long key = entry.getLongKey();
+                    ZoneCell cell = entry.getValue();
+                    for (int i = 0; i < cell.size(); i++) {
+                        if (key == ChunkPos.toLong(cell.getMinX(i) >> 4, cell.getMinZ(i) >> 4)
+                                && cell.intersects(i, minX, minY, minZ, maxX, maxY, maxZ)) {
+                            result.add(cell.get(i));
+                        }
+                    }
+                }
+            }
+        }
+
+        boolean intersectsAny(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+            for (int cx = minX >> 4; cx <= maxX >> 4; cx++) {
+                for (int cz = minZ >> 4; cz <= maxZ >> 4; cz++) {
+                    ZoneCell cell = getCell(cx, cz);
+                    if (cell != null && cell.intersectsAny(minX, minY, minZ, maxX, maxY, maxZ)) {
+                        return true;
+                    }
+                }
+            }
+            return largeZones.intersectsAny(minX, minY, minZ, maxX, maxY, maxZ);
+        }
+
+        private static boolean isLarge(PrivateZone zone) {
+            long chunksX = (zone.getMaxX() >> 4) - (zone.getMinX() >> 4) + 1L;
+            long chunksZ = (zone.getMaxZ() >> 4) - (zone.getMinZ() >> 4) + 1L;
+            return chunksX * chunksZ > MAX_INDEXED_CHUNKS;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.kassa.privates.data;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * A player trusted in a zone, with the {@link ZonePermission} bits granted to them.
+ */
+public class ZoneMember {
+    @SerializedName("uuid")
+    private String uuid;
+
+    @SerializedName("name")
+    private String name;
+
+    @SerializedName("flags")
+    private int flags;
+
+    public ZoneMember() {
+    }
+
+    public ZoneMember(String uuid, String name, int flags) {
+        this.uuid = uuid;
+        this.name = name;
+        this.flags = flags;
+    }
+
+    public String getUuid() { return uuid; }
+    public String getName() { return name; }
+    public int getFlags() { return flags; }
+}
@@ -0,0 +1,131 @@
+package com.kassa.privates.data;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.List;
+import java.util.Map;
+
+public class ZoneMutation {
+    public enum Type {
+        @SerializedName("create") CREATE,
+        @SerializedName("owner") OWNER_CHANGE,
+        @SerializedName("members") MEMBERS,
+        @SerializedName("delete") DELETE
+    }
+
+    @SerializedName("op")
+    private Type type;
+
+    @SerializedName("zone")
+    private PrivateZone zone;
+
+    @SerializedName("id")
+    private String zoneId;
+
+    @SerializedName("owner")
+    private String ownerUuid;
+
+    @SerializedName("ownerName")
+    private String ownerName;
+
+    @SerializedName("members")
+    private List<ZoneMember> members;
+
+    @SerializedName("event")
+    private String eventId;
+
+    @SerializedName("block")
+    private Long blockNumber;
+
+    @SerializedName("log")
+    private Long logIndex;
+
+    public ZoneMutation() {
+    }
+
+    private ZoneMutation(Type type, String zoneId) {
+        this.type = type;
+        this.zoneId = zoneId;
+    }
+
+    public static ZoneMutation create(PrivateZone zone) {
+        ZoneMutation mutation = new ZoneMutation(Type.CREATE, zone.getId());
+        mutation.zone = zone;
+        return mutation;
+    }
+
+    public static ZoneMutation ownerChange(PrivateZone zone) {
+        return ownerChange(zone, null, null, null);
+    }
+
+    /**
+     * Owner change caused by a blockchain event. The event id and chain position are kept in
+     * the same record, so they become durable exactly when the change itself does.
+     */
+    public static ZoneMutation ownerChange(PrivateZone zone, String eventId, Long blockNumber, Long logIndex) {
+        ZoneMutation mutation = new ZoneMutation(Type.OWNER_CHANGE, zone.getId());
+        mutation.ownerUuid = zone.getOwnerUuid();
+        mutation.ownerName = zone.getOwnerName();
+        mutation.eventId = eventId;
+        mutation.blockNumber = blockNumber;
+        mutation.logIndex = logIndex;
+        return mutation;
+    }
+
+    /**
+     * Records the zone's full member list, so replaying it is idempotent like the other ops.
+     */
+    public static ZoneMutation members(PrivateZone zone) {
+        ZoneMutation mutation = new ZoneMutation(Type.MEMBERS, zone.getId());
+        mutation.members = zone.getMembers();
+        return mutation;
+    }
+
+    public static ZoneMutation delete(String zoneId) {
+        return new ZoneMutation(Type.DELETE, zoneId);
+    }
+
+    public Type getType() { return type; }
+    public String getZoneId() { return zoneId; }
+    public String getEventId() { return eventId; }
+    public Long getBlockNumber() { return blockNumber; }
+    public Long getLogIndex() { return logIndex; }
+
+    /**
+     * Whether this record carries everything {@link #applyTo} needs. Gson happily turns any
+     * JSON object into a mutation, so records read back from disk are checked before replay.
+     */
+    public boolean isValid() {
+        if (type == null) {
+            return false;
+        }
+        return switch (type) {
+            case CREATE -> zone != null && zone.getId() != null;
+            case OWNER_CHANGE -> zoneId != null && ownerUuid != null;
+            case MEMBERS, DELETE -> zoneId != null;
+        };
+    }
+
+    /**
+     * Replays this mutation onto a zone map keyed by id. Replaying is idempotent, so
+     * records that are already part of the compacted snapshot can be applied again.
+     */
+    public void applyTo(Map<String, PrivateZone> zonesById) {
+        switch (type) {
+            case CREATE -> zonesById.put(zone.getId(), zone);
+            case OWNER_CHANGE -> {
+                PrivateZone existing = zonesById.get(zoneId);
+                if (existing != null) {
+                    zonesById.put(zoneId, existing.withOwner(ownerUuid, ownerName));
+                }
+            }
+            case MEMBERS -> {
+                PrivateZone existing = zonesById.get(zoneId);
+                if (existing != null) {
+                    zonesById.put(zoneId, existing.withMembers(members));
+                }
+            }
+            case DELETE -> zonesById.remove(zoneId);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.kassa.privates.data;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Actions a zone owner can grant to members. Each permission is a fixed bit, so a member's
+ * grants are stored as one int and checked with a single mask test. Bits are persisted in
+ * zone files and must never be renumbered.
+ */
+public enum ZonePermission {
+    BREAK("break", 1),
+    PLACE("place", 1 << 1),
+    INTERACT("interact", 1 << 2),
+    CONTAINERS("containers", 1 << 3),
+    ENTITIES("entities", 1 << 4);
+
+    public static final int NONE = 0;
+    public static final int ALL = BREAK.bit | PLACE.bit | INTERACT.bit | CONTAINERS.bit | ENTITIES.bit;
+
+    private static final Map<String, Integer> ROLES = new LinkedHashMap<>();
+
+    static {
+        ROLES.put("member", ALL);
+        ROLES.put("builder", BREAK.bit | PLACE.bit | INTERACT.bit | CONTAINERS.bit);
+        ROLES.put("guest", INTERACT.bit);
+    }
+
+    private final String key;
+    private final int bit;
+
+    ZonePermission(String key, int bit) {
+        this.key = key;
+        this.bit = bit;
+    }
+
+    public String getKey() { return key; }
+    public int bit() { return bit; }
+
+    /**
+     * Parses a role name ({@code member}, {@code builder}, {@code guest}) or a comma-separated
+     * list of permission keys such as {@code break,place}. Returns -1 if anything is unknown.
+     */
+    public static int parse(String value) {
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        Integer role = ROLES.get(normalized);
+        if (role != null) {
+            return role;
+        }
+
+        int flags = NONE;
+        for (String part : normalized.split("[,\\s]+")) {
+            ZonePermission permission = byKey(part);
+            if (permission == null) {
+                return -1;
+            }
+            flags |= permission.bit;
+        }
+        return flags;
+    }
+
+    public static String describe(int flags) {
+        for (Map.Entry<String, Integer> role : ROLES.entrySet()) {
+            if (role.getValue() == flags) {
+                return role.getKey();
+            }
+        }
+
+        StringJoiner joiner = new StringJoiner(",");
+        for (ZonePermission permission : values()) {
+            if ((flags & permission.bit) != 0) {
+                joiner.add(permission.key);
+            }
+        }
+        return joiner.toString();
+    }
+
+    public static String roleNames() {
+        return String.join(", ", ROLES.keySet());
+    }
+
+    private static ZonePermission byKey(String key) {
+        for (ZonePermission permission : values()) {
+            if (permission.key.equals(key)) {
+                return permission;
+            }
+        }
+        return null;
+    }
+}
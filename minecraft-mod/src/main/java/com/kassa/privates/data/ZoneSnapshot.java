@@ -0,0 +1,276 @@
+package com.kassa.privates.data;
+
+import net.minecraft.util.Identifier;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Immutable view of every zone together with its lookup indexes. Changes go
+ * through {@link #edit()}, which produces a new snapshot and leaves this one
+ * untouched, so readers never need a lock.
+ * <p>
+ * Snapshots share structure: the lookups are {@link ShardedMap}s and the spatial index
+ * copies only what an edit touches, so publishing a single change does not copy every zone.
+ */
+public final class ZoneSnapshot {
+    private static final Comparator<PrivateZone> ZONE_NAME_ORDER = Comparator
+        .comparing(PrivateZone::getName, String.CASE_INSENSITIVE_ORDER)
+        .thenComparing(PrivateZone::getName)
+        .thenComparing(PrivateZone::getId);
+    private static final Comparator<PrivateZone> OLDEST_FIRST = Comparator
+        .comparingLong(PrivateZone::getCreatedAt)
+        .thenComparing(PrivateZone::getId);
+
+    public static final ZoneSnapshot EMPTY = new ZoneSnapshot(0, new ZoneIndex(),
+        ShardedMap.empty(), ShardedMap.empty(), ShardedMap.empty());
+
+    private final long version;
+    private final ZoneIndex spatialIndex;
+    private final ShardedMap<String, PrivateZone> zonesById;
+    private final ShardedMap<String, List<PrivateZone>> zonesByOwner;
+    private final ShardedMap<String, Map<String, List<PrivateZone>>> zonesByOwnerAndName;
+    private volatile List<PrivateZone> zones;
+
+    private ZoneSnapshot(long version, ZoneIndex spatialIndex,
+                         ShardedMap<String, PrivateZone> zonesById,
+                         ShardedMap<String, List<PrivateZone>> zonesByOwner,
+                         ShardedMap<String, Map<String, List<PrivateZone>>> zonesByOwnerAndName) {
+        this.version = version;
+        this.spatialIndex = spatialIndex;
+        this.zonesById = zonesById;
+        this.zonesByOwner = zonesByOwner;
+        this.zonesByOwnerAndName = zonesByOwnerAndName;
+    }
+
+    public static ZoneSnapshot of(Collection<PrivateZone> zones, long version) {
+        CompletableFuture<ZoneIndex> spatialIndex = CompletableFuture.supplyAsync(() -> ZoneIndex.build(zones));
+
+        Editor editor = EMPTY.edit();
+        for (PrivateZone zone : zones) {
+            editor.addToLookups(zone);
+        }
+        editor.spatialIndex = spatialIndex.join();
+        return editor.build(version);
+    }
+
+    public long getVersion() { return version; }
+    public int size() { return zonesById.size(); }
+
+    /**
+     * Every zone, in no particular order. Built on first use, since only saving, backups and
+     * metrics need the whole list.
+     */
+    public List<PrivateZone> getZones() {
+        List<PrivateZone> list = zones;
+        if (list == null) {
+            list = Collections.unmodifiableList(zonesById.values());
+            zones = list;
+        }
+        return list;
+    }
+
+    public PrivateZone getById(String zoneId) {
+        return zonesById.get(zoneId);
+    }
+
+    public List<PrivateZone> getByOwner(String ownerUuid) {
+        return zonesByOwner.getOrDefault(ownerUuid, List.of());
+    }
+
+    /**
+     * The owner's zone with this name. Names are unique per owner when zones are created,
+     * but a transfer can hand an owner a second zone with a name they already use; the
+     * oldest one is returned then, and the others stay reachable by id.
+     */
+    public PrivateZone getByOwnerAndName(String ownerUuid, String name) {
+        List<PrivateZone> named = getAllByOwnerAndName(ownerUuid, name);
+        return named.isEmpty() ? null : named.get(0);
+    }
+
+    /** Every zone of the owner with this name, oldest first. */
+    public List<PrivateZone> getAllByOwnerAndName(String ownerUuid, String name) {
+        Map<String, List<PrivateZone>> zonesByName = zonesByOwnerAndName.get(ownerUuid);
+        if (zonesByName == null) {
+            return List.of();
+        }
+        return zonesByName.getOrDefault(name, List.of());
+    }
+
+    public PrivateZone getZoneAt(Identifier worldId, int x, int y, int z) {
+        return spatialIndex.getZoneAt(worldId, x, y, z);
+    }
+
+    public List<PrivateZone> findIntersecting(Identifier worldId, int minX, int minY, int minZ,
+                                              int maxX, int maxY, int maxZ) {
+        return spatialIndex.findIntersecting(worldId, minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    public boolean intersectsAny(Identifier worldId, int minX, int minY, int minZ,
+                                 int maxX, int maxY, int maxZ) {
+        return spatialIndex.intersectsAny(worldId, minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    public Editor edit() {
+        return new Editor(this);
+    }
+
+    public static final class Editor {
+        private ZoneIndex spatialIndex;
+        private final ShardedMap.Editor<String, PrivateZone> zonesById;
+        private final ShardedMap.Editor<String, List<PrivateZone>> zonesByOwner;
+        private final ShardedMap.Editor<String, Map<String, List<PrivateZone>>> zonesByOwnerAndName;
+        private final Set<String> ownedOwnerZones = new HashSet<>();
+        private final Set<String> ownedOwnerNames = new HashSet<>();
+        private boolean built;
+
+        private Editor(ZoneSnapshot base) {
+            this.spatialIndex = base.spatialIndex.copy();
+            this.zonesById = base.zonesById.edit();
+            this.zonesByOwner = base.zonesByOwner.edit();
+            this.zonesByOwnerAndName = base.zonesByOwnerAndName.edit();
+        }
+
+        public PrivateZone get(String zoneId) {
+            return zonesById.get(zoneId);
+        }
+
+        public Editor add(PrivateZone zone) {
+            checkNotBuilt();
+            addToLookups(zone);
+            spatialIndex.add(zone);
+            return this;
+        }
+
+        private void addToLookups(PrivateZone zone) {
+            zonesById.put(zone.getId(), zone);
+            indexOwner(zone);
+        }
+
+        public Editor replace(PrivateZone oldZone, PrivateZone newZone) {
+            checkNotBuilt();
+            if (zonesById.get(oldZone.getId()) != oldZone) {
+                throw new IllegalArgumentException("Zone " + oldZone.getId() + " is not part of this snapshot");
+            }
+
+            spatialIndex.remove(oldZone);
+            spatialIndex.add(newZone);
+            zonesById.remove(oldZone.getId());
+            zonesById.put(newZone.getId(), newZone);
+            unindexOwner(oldZone);
+            indexOwner(newZone);
+            return this;
+        }
+
+        public Editor remove(PrivateZone zone) {
+            checkNotBuilt();
+            if (zonesById.get(zone.getId()) == zone) {
+                spatialIndex.remove(zone);
+                zonesById.remove(zone.getId());
+                unindexOwner(zone);
+            }
+            return this;
+        }
+
+        public ZoneSnapshot build(long version) {
+            checkNotBuilt();
+            built = true;
+
+            for (String owner : ownedOwnerZones) {
+                List<PrivateZone> ownerZones = zonesByOwner.get(owner);
+                if (ownerZones != null) {
+                    ownerZones.sort(ZONE_NAME_ORDER);
+                    zonesByOwner.put(owner, Collections.unmodifiableList(ownerZones));
+                }
+            }
+            for (String owner : ownedOwnerNames) {
+                Map<String, List<PrivateZone>> zonesByName = zonesByOwnerAndName.get(owner);
+                if (zonesByName != null) {
+                    zonesByOwnerAndName.put(owner, Collections.unmodifiableMap(zonesByName));
+                }
+            }
+
+            return new ZoneSnapshot(version, spatialIndex, zonesById.build(), zonesByOwner.build(),
+                zonesByOwnerAndName.build());
+        }
+
+        private void indexOwner(PrivateZone zone) {
+            writableOwnerZones(zone.getOwnerUuid()).add(zone);
+            writableOwnerNames(zone.getOwnerUuid()).merge(zone.getName(), List.of(zone), Editor::withNamed);
+        }
+
+        private void unindexOwner(PrivateZone zone) {
+            String owner = zone.getOwnerUuid();
+
+            if (zonesByOwner.get(owner) != null) {
+                List<PrivateZone> ownerZones = writableOwnerZones(owner);
+                ownerZones.remove(zone);
+                if (ownerZones.isEmpty()) {
+                    zonesByOwner.remove(owner);
+                }
+            }
+
+            Map<String, List<PrivateZone>> zonesByName = zonesByOwnerAndName.get(owner);
+            List<PrivateZone> named = zonesByName == null ? null : zonesByName.get(zone.getName());
+            if (named != null && named.contains(zone)) {
+                zonesByName = writableOwnerNames(owner);
+                if (named.size() == 1) {
+                    zonesByName.remove(zone.getName());
+                } else {
+                    zonesByName.put(zone.getName(), withoutNamed(named, zone));
+                }
+                if (zonesByName.isEmpty()) {
+                    zonesByOwnerAndName.remove(owner);
+                }
+            }
+        }
+
+        private List<PrivateZone> writableOwnerZones(String owner) {
+            List<PrivateZone> ownerZones = zonesByOwner.get(owner);
+            if (ownerZones == null || ownedOwnerZones.add(owner)) {
+                ownedOwnerZones.add(owner);
+                ownerZones = ownerZones == null ? new ArrayList<>() : new ArrayList<>(ownerZones);
+                zonesByOwner.put(owner, ownerZones);
+            }
+            return ownerZones;
+        }
+
+        private Map<String, List<PrivateZone>> writableOwnerNames(String owner) {
+            Map<String, List<PrivateZone>> zonesByName = zonesByOwnerAndName.get(owner);
+            if (zonesByName == null || ownedOwnerNames.add(owner)) {
+                ownedOwnerNames.add(owner);
+                zonesByName = zonesByName == null ? new HashMap<>() : new HashMap<>(zonesByName);
+                zonesByOwnerAndName.put(owner, zonesByName);
+            }
+            return zonesByName;
+        }
+
+        private static List<PrivateZone> withNamed(List<PrivateZone> named, List<PrivateZone> added) {
+            List<PrivateZone> merged = new ArrayList<>(named.size() + added.size());
+            merged.addAll(named);
+            merged.addAll(added);
+            merged.sort(OLDEST_FIRST);
+            return List.copyOf(merged);
+        }
+
+        private static List<PrivateZone> withoutNamed(List<PrivateZone> named, PrivateZone removed) {
+            List<PrivateZone> remaining = new ArrayList<>(named);
+            remaining.remove(removed);
+            return List.copyOf(remaining);
+        }
+
+        private void checkNotBuilt() {
+            if (built) {
+                throw new IllegalStateException("Snapshot has already been built");
+            }
+        }
+    }
+}
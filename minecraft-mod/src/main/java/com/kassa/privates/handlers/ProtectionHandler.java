@@ -1,27 +1,57 @@
 package com.kassa.privates.handlers;
 
+import com.kassa.privates.config.PrivatesConfig;
 import com.kassa.privates.data.PrivateManager;
 import com.kassa.privates.data.PrivateZone;
+import com.kassa.privates.handlers.ProtectionPolicy.Check;
 import net.fabricmc.fabric.api.event.player.UseBlockCallback;
 import net.fabricmc.fabric.api.event.player.UseEntityCallback;
 import net.fabricmc.fabric.api.event.player.UseItemCallback;
 import net.fabricmc.fabric.api.event.player.AttackBlockCallback;
 import net.fabricmc.fabric.api.event.player.PlayerBlockBreakEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.minecraft.inventory.Inventory;
+import net.minecraft.item.BlockItem;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.text.Text;
 import net.minecraft.util.ActionResult;
 import net.minecraft.util.Formatting;
+import net.minecraft.util.Hand;
+import net.minecraft.util.Identifier;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 public class ProtectionHandler {
+    private static final Map<UUID, Map<String, Long>> LAST_DENIALS = new HashMap<>();
+    private static final int MAX_DENIALS_PER_PLAYER = 16;
+    private static final Map<String, ZoneMessage> ZONE_MESSAGES = new LruMap<>(4096);
+    
+    private static ProtectionPolicy policy;
+    private static long messageCooldownNanos;
     
     public static void register() {
+        policy = new ProtectionPolicy(PrivateManager.getInstance());
+        messageCooldownNanos = TimeUnit.MILLISECONDS.toNanos(PrivatesConfig.get().getProtectionMessageCooldownMillis());
+        
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> {
+            UUID playerId = handler.getPlayer().getUuid();
+            policy.forget(playerId);
+            LAST_DENIALS.remove(playerId);
+        });
+
+
         PlayerBlockBreakEvents.BEFORE.register((world, player, pos, state, blockEntity) -> {
             if (world.isClient() || !(player instanceof ServerPlayerEntity serverPlayer)) {
                 return true;
             }
             
-            if (isProtectedAndNotOwner(serverPlayer, pos)) {
+            if (isDenied(serverPlayer, pos, Check.BREAK_BLOCK)) {
                 return false;
             }
             
@@ -39,7 +69,7 @@ public class ProtectionHandler {
             
             BlockPos pos = hitResult.getBlockPos();
             
-            if (isProtectedAndNotOwner(serverPlayer, pos)) {
+            if (isDenied(serverPlayer, pos, useBlockCheck(serverPlayer, world, hand, pos))) {
                 return ActionResult.FAIL;
             }
             
@@ -57,7 +87,7 @@ public class ProtectionHandler {
             
             BlockPos playerPos = serverPlayer.getBlockPos();
             
-            if (isProtectedAndNotOwner(serverPlayer, playerPos)) {
+            if (isDenied(serverPlayer, playerPos, Check.USE_ITEM)) {
                 return ActionResult.FAIL;
             }
             
@@ -71,7 +101,7 @@ public class ProtectionHandler {
             
             BlockPos entityPos = entity.getBlockPos();
             
-            if (isProtectedAndNotOwner(serverPlayer, entityPos)) {
+            if (isDenied(serverPlayer, entityPos, Check.USE_ENTITY)) {
                 return ActionResult.FAIL;
             }
             
@@ -83,7 +113,7 @@ public class ProtectionHandler {
                 return ActionResult.PASS;
             }
             
-            if (isProtectedAndNotOwner(serverPlayer, pos)) {
+            if (isDenied(serverPlayer, pos, Check.ATTACK_BLOCK)) {
                 return ActionResult.FAIL;
             }
             
@@ -91,17 +121,27 @@ public class ProtectionHandler {
         });
     }
     
-    private static boolean isProtectedAndNotOwner(ServerPlayerEntity player, BlockPos pos) {
-        PrivateManager manager = PrivateManager.getInstance();
-        String worldName = player.getServerWorld().getRegistryKey().getValue().toString();
-        
-        PrivateZone zone = manager.getZoneAtPosition(pos, worldName);
-        
-        if (zone == null) {
-            return false;
+    /**
+     * Right-clicking a block opens it if it is a container, unless the player sneaks while
+     * holding a block, which places instead. The block entity is only looked up where the zone
+     * restricts the player; anywhere else every check is allowed anyway.
+     */
+    private static Check useBlockCheck(ServerPlayerEntity player, World world, Hand hand, BlockPos pos) {
+        boolean placing = player.getStackInHand(hand).getItem() instanceof BlockItem;
+        if (!(placing && player.isSneaking())
+                && policy.restricts(player.getUuid(), player.getServerWorld().getRegistryKey().getValue(),
+                    pos.getX(), pos.getY(), pos.getZ())
+                && world.getBlockEntity(pos) instanceof Inventory) {
+            return Check.OPEN_CONTAINER;
         }
+        return placing ? Check.PLACE_BLOCK : Check.USE_BLOCK;
+    }
+    
+    private static boolean isDenied(ServerPlayerEntity player, BlockPos pos, Check check) {
+        Identifier worldId = player.getServerWorld().getRegistryKey().getValue();
+        PrivateZone zone = policy.check(player.getUuid(), worldId, pos.getX(), pos.getY(), pos.getZ(), check);
         
-        if (!zone.isOwner(player.getUuidAsString())) {
+        if (zone != null) {
             sendProtectionMessage(player, zone);
             return true;
         }
@@ -109,19 +149,72 @@ public class ProtectionHandler {
         return false;
     }
     
+    /**
+     * Holding attack on a protected block denies every tick, so the same zone's message is only
+     * sent to a player once per cooldown window. Each player keeps the zones they were recently
+     * denied in, so walking along the border of two zones does not resend both every tick.
+     */
     private static void sendProtectionMessage(ServerPlayerEntity player, PrivateZone zone) {
-        player.sendMessage(
-            Text.literal("This area is protected! Zone: ")
-                .formatted(Formatting.RED)
-                .append(Text.literal("'" + zone.getName() + "'")
-                    .formatted(Formatting.YELLOW))
-                .append(Text.literal(" owned by ")
-                    .formatted(Formatting.RED))
-                .append(Text.literal(zone.getOwnerName())
-                    .formatted(Formatting.GOLD))
-                .append(Text.literal(".")
-                    .formatted(Formatting.RED)), 
-            true
-        );
+        long now = System.nanoTime();
+        Map<String, Long> denials = LAST_DENIALS.computeIfAbsent(player.getUuid(),
+            playerId -> new LruMap<>(MAX_DENIALS_PER_PLAYER));
+        Long sentAt = denials.get(zone.getId());
+        if (sentAt != null && now - sentAt < messageCooldownNanos) {
+            return;
+        }
+        denials.put(zone.getId(), now);
+        
+        player.sendMessage(protectionMessage(zone), true);
+    }
+    
+    /**
+     * Zones are immutable and renaming or transferring one replaces the instance, so a cached
+     * message is reused only while it was built from the very same zone object.
+     */
+    private static Text protectionMessage(PrivateZone zone) {
+        ZoneMessage cached = ZONE_MESSAGES.get(zone.getId());
+        if (cached != null && cached.zone == zone) {
+            return cached.text;
+        }
+        
+        Text text = Text.literal("This area is protected! Zone: ")
+            .formatted(Formatting.RED)
+            .append(Text.literal("'" + zone.getName() + "'")
+                .formatted(Formatting.YELLOW))
+            .append(Text.literal(" owned by ")
+                .formatted(Formatting.RED))
+            .append(Text.literal(zone.getOwnerName())
+                .formatted(Formatting.GOLD))
+            .append(Text.literal(".")
+                .formatted(Formatting.RED));
+        ZONE_MESSAGES.put(zone.getId(), new ZoneMessage(zone, text));
+        return text;
+    }
+    
+    /** Access-ordered map that drops the least recently used entry once it is full. */
+    private static class LruMap<K, V> extends LinkedHashMap<K, V> {
+        private static final long serialVersionUID = 1L;
+        
+        private final int maxSize;
+        
+        LruMap(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+        
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxSize;
+        }
+    }
+    
+    private static class ZoneMessage {
+        private final PrivateZone zone;
+        private final Text text;
+        
+        ZoneMessage(PrivateZone zone, Text text) {
+            this.zone = zone;
+            this.text = text;
+        }
     }
-}
\ No newline at end of file
+}
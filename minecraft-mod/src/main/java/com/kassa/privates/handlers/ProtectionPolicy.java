@@ -0,0 +1,143 @@
+package com.kassa.privates.handlers;
+
+import com.kassa.privates.data.PrivateManager;
+import com.kassa.privates.data.PrivateZone;
+import com.kassa.privates.data.ZonePermission;
+import com.kassa.privates.metrics.Counter;
+import com.kassa.privates.metrics.Histogram;
+import com.kassa.privates.metrics.PrivatesMetrics;
+import net.minecraft.util.Identifier;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The allow/deny decision behind the protection callbacks, free of any player or world
+ * objects so it can also be driven headless. Owners may do anything in their zones; members
+ * need the {@link ZonePermission} bit the check maps to. Each player keeps the box around their last
+ * lookup (the zone hit, or an empty 16x16x16 section) and reuses it until the zone set
+ * changes. Not thread-safe; call it from the server thread only.
+ */
+public class ProtectionPolicy {
+    private static final Counter CACHE_HITS = PrivatesMetrics.PROTECTION_CACHE.labels("hit");
+    private static final Counter CACHE_MISSES = PrivatesMetrics.PROTECTION_CACHE.labels("miss");
+
+    public enum Check {
+        BREAK_BLOCK("break_block", ZonePermission.BREAK),
+        PLACE_BLOCK("place_block", ZonePermission.PLACE),
+        USE_BLOCK("use_block", ZonePermission.INTERACT),
+        OPEN_CONTAINER("open_container", ZonePermission.CONTAINERS),
+        USE_ITEM("use_item", ZonePermission.INTERACT),
+        USE_ENTITY("use_entity", ZonePermission.ENTITIES),
+        ATTACK_BLOCK("attack_block", ZonePermission.BREAK);
+
+        private final int permission;
+        private final Histogram latency;
+        private final Counter allowed;
+        private final Counter denied;
+
+        Check(String callback, ZonePermission permission) {
+            this.permission = permission.bit();
+            this.latency = PrivatesMetrics.PROTECTION_CHECK_SECONDS.labels(callback);
+            this.allowed = PrivatesMetrics.PROTECTION_CHECKS.labels(callback, "allow");
+            this.denied = PrivatesMetrics.PROTECTION_CHECKS.labels(callback, "deny");
+        }
+    }
+
+    private final PrivateManager manager;
+    private final Map<UUID, ZoneLookupCache> lookupCaches = new HashMap<>();
+
+    public ProtectionPolicy(PrivateManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Returns the zone that forbids {@code player} this action at the given block, or null
+     * when the action is allowed.
+     */
+    public PrivateZone check(UUID player, Identifier worldId, int x, int y, int z, Check check) {
+        long start = System.nanoTime();
+        PrivateZone zone = findZone(player, worldId, x, y, z);
+        boolean denied = zone != null && !zone.isAllowed(player, check.permission);
+        check.latency.recordSince(start);
+
+        if (denied) {
+            check.denied.increment();
+            return zone;
+        }
+
+        check.allowed.increment();
+        return null;
+    }
+
+    /**
+     * Whether the player's permissions matter at this block, i.e. it lies in a zone they do not
+     * own. Lets callers skip work that only decides which {@link Check} to run.
+     */
+    public boolean restricts(UUID player, Identifier worldId, int x, int y, int z) {
+        PrivateZone zone = findZone(player, worldId, x, y, z);
+        return zone != null && !zone.isOwner(player);
+    }
+
+    public void forget(UUID player) {
+        lookupCaches.remove(player);
+    }
+
+    private PrivateZone findZone(UUID player, Identifier worldId, int x, int y, int z) {
+        long epoch = manager.getZoneEpoch();
+
+        ZoneLookupCache cache = lookupCaches.get(player);
+        if (cache == null) {
+            cache = new ZoneLookupCache();
+            lookupCaches.put(player, cache);
+        } else if (cache.covers(epoch, worldId, x, y, z)) {
+            CACHE_HITS.increment();
+            return cache.zone;
+        }
+        CACHE_MISSES.increment();
+
+        PrivateZone zone = manager.getZoneAt(worldId, x, y, z);
+        if (zone != null) {
+            cache.update(epoch, worldId, zone, zone.getMinX(), zone.getMinY(), zone.getMinZ(),
+                zone.getMaxX(), zone.getMaxY(), zone.getMaxZ());
+        } else {
+            int sectionX = x & ~15;
+            int sectionY = y & ~15;
+            int sectionZ = z & ~15;
+            if (manager.isRegionFree(worldId, sectionX, sectionY, sectionZ, sectionX + 15, sectionY + 15, sectionZ + 15)) {
+                cache.update(epoch, worldId, null, sectionX, sectionY, sectionZ, sectionX + 15, sectionY + 15, sectionZ + 15);
+            } else {
+                cache.update(epoch, worldId, null, x, y, z, x, y, z);
+            }
+        }
+        return zone;
+    }
+
+    private static class ZoneLookupCache {
+        private long epoch = -1;
+        private Identifier worldId;
+        private PrivateZone zone;
+        private int minX, minY, minZ, maxX, maxY, maxZ;
+
+        boolean covers(long currentEpoch, Identifier currentWorldId, int x, int y, int z) {
+            return epoch == currentEpoch && worldId == currentWorldId
+                && x >= minX && x <= maxX
+                && y >= minY && y <= maxY
+                && z >= minZ && z <= maxZ;
+        }
+
+        void update(long epoch, Identifier worldId, PrivateZone zone,
+                    int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+            this.epoch = epoch;
+            this.worldId = worldId;
+            this.zone = zone;
+            this.minX = minX;
+            this.minY = minY;
+            this.minZ = minZ;
+            this.maxX = maxX;
+            this.maxY = maxY;
+            this.maxZ = maxZ;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.kassa.privates.handlers;
 import com.kassa.privates.data.PrivateManager;
 import com.kassa.privates.items.SelectionStick;
 import net.fabricmc.fabric.api.event.player.UseBlockCallback;
+import net.minecraft.item.ItemStack;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.text.Text;
 import net.minecraft.util.ActionResult;
@@ -17,7 +18,8 @@ public class SelectionHandler {
                 return ActionResult.PASS;
             }
             
-            if (!SelectionStick.isSelectionStick(serverPlayer.getStackInHand(hand))) {
+            ItemStack stack = serverPlayer.getStackInHand(hand);
+            if (!SelectionStick.isSelectionStick(stack) && !SelectionStick.upgradeLegacyStick(serverPlayer, stack)) {
                 return ActionResult.PASS;
             }
             
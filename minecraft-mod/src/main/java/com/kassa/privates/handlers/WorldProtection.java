@@ -0,0 +1,113 @@
+package com.kassa.privates.handlers;
+
+import com.kassa.privates.data.PrivateManager;
+import com.kassa.privates.data.PrivateZone;
+import com.kassa.privates.data.ZoneCell;
+import com.kassa.privates.metrics.Counter;
+import com.kassa.privates.metrics.PrivatesMetrics;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldAccess;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Protection against changes no player makes directly: explosions, pistons and flowing fluids.
+ * Called from the mixins in {@code com.kassa.privates.mixin} on the server thread.
+ * <p>
+ * A piston or fluid may act on a zone only from inside a zone with the same owner, so players
+ * can still build machines and moats within their own claims. Explosions never break zone blocks.
+ */
+public final class WorldProtection {
+    private static final Counter EXPLOSION_BLOCKS_ALLOWED = PrivatesMetrics.PROTECTION_CHECKS.labels("explosion", "allow");
+    private static final Counter EXPLOSION_BLOCKS_DENIED = PrivatesMetrics.PROTECTION_CHECKS.labels("explosion", "deny");
+    private static final Counter PISTON_ALLOWED = PrivatesMetrics.PROTECTION_CHECKS.labels("piston", "allow");
+    private static final Counter PISTON_DENIED = PrivatesMetrics.PROTECTION_CHECKS.labels("piston", "deny");
+    private static final Counter FLUID_DENIED = PrivatesMetrics.PROTECTION_CHECKS.labels("fluid", "deny");
+
+    private WorldProtection() {
+    }
+
+    /**
+     * Drops every block inside a zone from an explosion's list of blocks to destroy.
+     */
+    public static void filterExplosion(ServerWorld world, List<BlockPos> blocks) {
+        int removed = PrivateManager.getInstance().removeProtectedPositions(worldId(world), blocks);
+        EXPLOSION_BLOCKS_DENIED.add(removed);
+        EXPLOSION_BLOCKS_ALLOWED.add(blocks.size());
+    }
+
+    /**
+     * Whether a piston at {@code piston} may push or pull {@code movedBlocks} one step in
+     * {@code motion} and break {@code brokenBlocks}.
+     */
+    public static boolean canPistonMove(World world, BlockPos piston, Direction motion,
+                                        List<BlockPos> movedBlocks, List<BlockPos> brokenBlocks) {
+        if (world.isClient()) {
+            return true;
+        }
+
+        List<BlockPos> affected = new ArrayList<>(movedBlocks.size() * 2 + brokenBlocks.size() + 1);
+        affected.add(piston);
+        affected.addAll(brokenBlocks);
+        for (BlockPos pos : movedBlocks) {
+            affected.add(pos);
+            affected.add(pos.offset(motion));
+        }
+
+        ZoneCell zones = PrivateManager.getInstance().getZonesAround(worldId(world), affected);
+        if (zones.size() > 0) {
+            PrivateZone pistonZone = zones.getZoneAt(piston.getX(), piston.getY(), piston.getZ());
+            for (BlockPos pos : affected) {
+                if (!sameOwner(zones.getZoneAt(pos.getX(), pos.getY(), pos.getZ()), pistonZone)) {
+                    PISTON_DENIED.increment();
+                    return false;
+                }
+            }
+        }
+        PISTON_ALLOWED.increment();
+        return true;
+    }
+
+    /**
+     * Whether fluid may flow into {@code pos} from its neighbour opposite {@code direction}.
+     * Runs for every fluid spread, so the source is only looked up when the target is claimed.
+     */
+    public static boolean canFluidFlow(WorldAccess world, BlockPos pos, Direction direction) {
+        if (!(world instanceof World flowWorld) || flowWorld.isClient()) {
+            return true;
+        }
+
+        Identifier worldId = worldId(flowWorld);
+        PrivateManager manager = PrivateManager.getInstance();
+        PrivateZone target = manager.getZoneAt(worldId, pos.getX(), pos.getY(), pos.getZ());
+        if (target == null) {
+            return true;
+        }
+
+        BlockPos source = pos.offset(direction.getOpposite());
+        PrivateZone sourceZone = target.containsBlock(source.getX(), source.getY(), source.getZ())
+            ? target
+            : manager.getZoneAt(worldId, source.getX(), source.getY(), source.getZ());
+        if (sameOwner(target, sourceZone)) {
+            return true;
+        }
+        FLUID_DENIED.increment();
+        return false;
+    }
+
+    /**
+     * True when {@code zone} is unclaimed or owned by the same player as {@code actingZone}.
+     */
+    private static boolean sameOwner(PrivateZone zone, PrivateZone actingZone) {
+        return zone == null || (actingZone != null && zone.getOwnerUuid().equals(actingZone.getOwnerUuid()));
+    }
+
+    private static Identifier worldId(World world) {
+        return world.getRegistryKey().getValue();
+    }
+}
@@ -1,12 +1,17 @@
 package com.kassa.privates.items;
 
 import net.minecraft.component.DataComponentTypes;
+import net.minecraft.component.type.NbtComponent;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.Items;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
 
 public class SelectionStick {
+    private static final String MARKER_KEY = "privates:selection_stick";
+    private static final String LEGACY_NAME = "Private Selection Stick";
     
     public static void init() {
     }
@@ -15,8 +20,12 @@ public class SelectionStick {
         ItemStack stick = new ItemStack(Items.STICK);
         
         stick.set(DataComponentTypes.CUSTOM_NAME, 
-            Text.literal("Private Selection Stick")
+            Text.literal(LEGACY_NAME)
                 .formatted(Formatting.GOLD, Formatting.BOLD));
+
+        NbtCompound marker = new NbtCompound();
+        marker.putBoolean(MARKER_KEY, true);
+        stick.set(DataComponentTypes.CUSTOM_DATA, NbtComponent.of(marker));
         
         return stick;
     }
@@ -26,8 +35,29 @@ public class SelectionStick {
             return false;
         }
         
-        String displayName = stack.getName().getString();
+        NbtComponent customData = stack.get(DataComponentTypes.CUSTOM_DATA);
+        return customData != null && customData.contains(MARKER_KEY);
+    }
+
+    /**
+     * Sticks handed out before the marker existed only carry the display name, which anyone can
+     * set in an anvil, so the name alone never counts. When an operator uses such a stick it is
+     * marked once and works from then on. Returns true if {@code stack} was converted.
+     */
+    public static boolean upgradeLegacyStick(ServerPlayerEntity player, ItemStack stack) {
+        if (stack.isEmpty() || !stack.isOf(Items.STICK) || stack.get(DataComponentTypes.CUSTOM_DATA) != null) {
+            return false;
+        }
+
+        Text customName = stack.get(DataComponentTypes.CUSTOM_NAME);
+        if (customName == null || !customName.getString().equals(LEGACY_NAME)
+                || !player.getServer().getPlayerManager().isOperator(player.getGameProfile())) {
+            return false;
+        }
 
-        return displayName.equals("Private Selection Stick");
+        NbtCompound marker = new NbtCompound();
+        marker.putBoolean(MARKER_KEY, true);
+        stack.set(DataComponentTypes.CUSTOM_DATA, NbtComponent.of(marker));
+        return true;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,84 @@
+package com.kassa.privates.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free HDR-style histogram covering {@code 2^minExponent} to {@code 2^maxExponent} raw
+ * units. Every power-of-two range is split into {@value #SUB_BUCKETS} equal-width sub-buckets,
+ * so a bucket's upper bound is at most 12.5% above any value recorded in it. Values up to
+ * {@code 2^minExponent} share the first bucket and larger ones the overflow bucket.
+ * Recording is a bit scan, a shift and two atomic adds, cheap enough for per-event hot paths.
+ */
+public class Histogram {
+    static final int SUB_BUCKETS = 8;
+    private static final int SUB_BUCKET_BITS = Integer.numberOfTrailingZeros(SUB_BUCKETS);
+
+    private final int minExponent;
+    private final AtomicLongArray counts;
+    private final LongAdder sum = new LongAdder();
+
+    public Histogram(int minExponent, int maxExponent) {
+        if (minExponent < SUB_BUCKET_BITS || maxExponent <= minExponent || maxExponent > 62) {
+            throw new IllegalArgumentException("Invalid exponent range " + minExponent + ".." + maxExponent);
+        }
+        this.minExponent = minExponent;
+        this.counts = new AtomicLongArray((maxExponent - minExponent) * SUB_BUCKETS + 2);
+    }
+
+    public void record(long value) {
+        counts.incrementAndGet(indexOf(value));
+        sum.add(value);
+    }
+
+    /**
+     * Records the time elapsed since {@code startNanos}, a {@link System#nanoTime()} reading.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * A value in {@code (2^(e-1), 2^e]} lands in sub-bucket {@code (value - 1 - 2^(e-1)) / 2^(e-1-3)}
+     * of that range.
+     */
+    int indexOf(long value) {
+        int exponent = value <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(value - 1);
+        if (exponent <= minExponent) {
+            return 0;
+        }
+        int last = counts.length() - 1;
+        int range = exponent - minExponent - 1;
+        if (range >= (last - 1) / SUB_BUCKETS) {
+            return last;
+        }
+        long lower = 1L << (exponent - 1);
+        int subBucket = (int) ((value - 1 - lower) >>> (exponent - 1 - SUB_BUCKET_BITS));
+        return 1 + range * SUB_BUCKETS + subBucket;
+    }
+
+    int bucketCount() {
+        return counts.length();
+    }
+
+    /**
+     * Upper bound of bucket {@code index} in raw units; the last bucket is unbounded.
+     */
+    long upperBound(int index) {
+        if (index == 0) {
+            return 1L << minExponent;
+        }
+        int range = (index - 1) / SUB_BUCKETS;
+        int subBucket = (index - 1) % SUB_BUCKETS;
+        long lower = 1L << (minExponent + range);
+        return lower + ((subBucket + 1L) << (minExponent + range - SUB_BUCKET_BITS));
+    }
+
+    long count(int index) {
+        return counts.get(index);
+    }
+
+    long sum() {
+        return sum.sum();
+    }
+}
@@ -0,0 +1,189 @@
+package com.kassa.privates.metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Named metric families rendered in the Prometheus text exposition format.
+ */
+public class MetricsRegistry {
+    private final List<Metric> metrics = new CopyOnWriteArrayList<>();
+
+    private abstract static class Metric {
+        final String name;
+        final String help;
+        final String type;
+        final String[] labelNames;
+
+        Metric(String name, String help, String type, String[] labelNames) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+            this.labelNames = labelNames;
+        }
+
+        void write(StringBuilder out) {
+            out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+            writeSamples(out);
+        }
+
+        abstract void writeSamples(StringBuilder out);
+
+        void appendLabels(StringBuilder out, List<String> labelValues, String extraName, String extraValue) {
+            if (labelNames.length == 0 && extraName == null) {
+                return;
+            }
+            out.append('{');
+            for (int i = 0; i < labelNames.length; i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                appendLabel(out, labelNames[i], labelValues.get(i));
+            }
+            if (extraName != null) {
+                if (labelNames.length > 0) {
+                    out.append(',');
+                }
+                appendLabel(out, extraName, extraValue);
+            }
+            out.append('}');
+        }
+
+        private static void appendLabel(StringBuilder out, String labelName, String value) {
+            out.append(labelName).append("=\"");
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '\\' -> out.append("\\\\");
+                    case '"' -> out.append("\\\"");
+                    case '\n' -> out.append("\\n");
+                    default -> out.append(c);
+                }
+            }
+            out.append('"');
+        }
+    }
+
+    /**
+     * Children of a family keyed by label values. Resolve children once and keep the
+     * reference on hot paths; {@link #labels} does a map lookup.
+     */
+    public static class Family<T> extends Metric {
+        private final Map<List<String>, T> children = new ConcurrentHashMap<>();
+        private final Supplier<T> factory;
+        private final double unitScale;
+
+        private Family(String name, String help, String type, String[] labelNames, Supplier<T> factory,
+                       double unitScale) {
+            super(name, help, type, labelNames);
+            this.factory = factory;
+            this.unitScale = unitScale;
+        }
+
+        public T labels(String... labelValues) {
+            if (labelValues.length != labelNames.length) {
+                throw new IllegalArgumentException(name + " expects " + labelNames.length + " label values");
+            }
+            return children.computeIfAbsent(List.of(labelValues), key -> factory.get());
+        }
+
+        @Override
+        void writeSamples(StringBuilder out) {
+            for (Map.Entry<List<String>, T> child : children.entrySet()) {
+                if (child.getValue() instanceof Counter counter) {
+                    out.append(name);
+                    appendLabels(out, child.getKey(), null, null);
+                    out.append(' ').append(counter.get()).append('\n');
+                } else if (child.getValue() instanceof Histogram histogram) {
+                    writeHistogram(out, child.getKey(), histogram);
+                }
+            }
+        }
+
+        private void writeHistogram(StringBuilder out, List<String> labelValues, Histogram histogram) {
+            long cumulative = 0;
+            int last = histogram.bucketCount() - 1;
+            for (int i = 0; i <= last; i++) {
+                cumulative += histogram.count(i);
+                String bound = i == last ? "+Inf" : format(histogram.upperBound(i) / unitScale);
+                out.append(name).append("_bucket");
+                appendLabels(out, labelValues, "le", bound);
+                out.append(' ').append(cumulative).append('\n');
+            }
+            out.append(name).append("_sum");
+            appendLabels(out, labelValues, null, null);
+            out.append(' ').append(format(histogram.sum() / unitScale)).append('\n');
+            out.append(name).append("_count");
+            appendLabels(out, labelValues, null, null);
+            out.append(' ').append(cumulative).append('\n');
+        }
+    }
+
+    private static class Gauge extends Metric {
+        private final Supplier<Map<String, ? extends Number>> values;
+
+        Gauge(String name, String help, String[] labelNames, Supplier<Map<String, ? extends Number>> values) {
+            super(name, help, "gauge", labelNames);
+            this.values = values;
+        }
+
+        @Override
+        void writeSamples(StringBuilder out) {
+            for (Map.Entry<String, ? extends Number> value : values.get().entrySet()) {
+                out.append(name);
+                appendLabels(out, labelNames.length == 0 ? List.of() : List.of(value.getKey()), null, null);
+                out.append(' ').append(value.getValue()).append('\n');
+            }
+        }
+    }
+
+    public Family<Counter> counter(String name, String help, String... labelNames) {
+        return register(new Family<>(name, help, "counter", labelNames, Counter::new, 1));
+    }
+
+    /**
+     * Histogram of durations recorded in nanoseconds and exposed in seconds (1µs to ~34s, 12.5% buckets).
+     */
+    public Family<Histogram> timer(String name, String help, String... labelNames) {
+        return register(new Family<>(name, help, "histogram", labelNames, () -> new Histogram(10, 35), 1e9));
+    }
+
+    /**
+     * Histogram of sizes in bytes (1 KiB to 16 GiB, 12.5% buckets).
+     */
+    public Family<Histogram> sizes(String name, String help, String... labelNames) {
+        return register(new Family<>(name, help, "histogram", labelNames, () -> new Histogram(10, 34), 1));
+    }
+
+    public void gauge(String name, String help, Supplier<? extends Number> value) {
+        register(new Gauge(name, help, new String[0], () -> Map.of("", value.get())));
+    }
+
+    /**
+     * Gauge with one label whose samples are produced at scrape time, keyed by label value.
+     */
+    public void gauge(String name, String help, String labelName, Supplier<Map<String, ? extends Number>> values) {
+        register(new Gauge(name, help, new String[] { labelName }, values));
+    }
+
+    public String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Metric metric : metrics) {
+            metric.write(out);
+        }
+        return out.toString();
+    }
+
+    private <M extends Metric> M register(M metric) {
+        metrics.add(metric);
+        return metric;
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15 ? Long.toString((long) value) : Double.toString(value);
+    }
+}
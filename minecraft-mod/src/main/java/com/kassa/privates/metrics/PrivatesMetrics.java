@@ -0,0 +1,31 @@
+package com.kassa.privates.metrics;
+
+/**
+ * Instruments shared across the mod, served by the webhook server at {@code /metrics}.
+ */
+public final class PrivatesMetrics {
+    public static final MetricsRegistry REGISTRY = new MetricsRegistry();
+
+    public static final MetricsRegistry.Family<Histogram> PROTECTION_CHECK_SECONDS = REGISTRY.timer(
+        "privates_protection_check_seconds", "Time spent deciding whether an interaction is allowed", "callback");
+    public static final MetricsRegistry.Family<Counter> PROTECTION_CHECKS = REGISTRY.counter(
+        "privates_protection_checks_total", "Protection decisions by callback and outcome", "callback", "result");
+    public static final MetricsRegistry.Family<Counter> PROTECTION_CACHE = REGISTRY.counter(
+        "privates_protection_cache_total", "Per-player zone lookup cache hits and misses", "result");
+
+    public static final MetricsRegistry.Family<Histogram> STORAGE_SECONDS = REGISTRY.timer(
+        "privates_storage_seconds", "Duration of zone file saves and loads", "operation");
+    public static final MetricsRegistry.Family<Histogram> STORAGE_BYTES = REGISTRY.sizes(
+        "privates_storage_bytes", "Size of zone files written or read", "operation");
+
+    public static final MetricsRegistry.Family<Histogram> API_SECONDS = REGISTRY.timer(
+        "privates_api_request_seconds", "Latency of outbound backend requests, per attempt");
+    public static final MetricsRegistry.Family<Counter> API_RESPONSES = REGISTRY.counter(
+        "privates_api_responses_total", "Outbound backend responses by status code", "status");
+
+    public static final MetricsRegistry.Family<Histogram> WEBHOOK_SECONDS = REGISTRY.timer(
+        "privates_webhook_request_seconds", "Webhook request handling time", "path");
+
+    private PrivatesMetrics() {
+    }
+}
@@ -0,0 +1,24 @@
+package com.kassa.privates.mixin;
+
+import com.kassa.privates.handlers.WorldProtection;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.explosion.ExplosionImpl;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+import java.util.List;
+
+@Mixin(ExplosionImpl.class)
+public abstract class ExplosionImplMixin {
+    @Shadow @Final private ServerWorld world;
+
+    @Inject(method = "getBlocksToDestroy", at = @At("RETURN"))
+    private void privates$keepZoneBlocks(CallbackInfoReturnable<List<BlockPos>> cir) {
+        WorldProtection.filterExplosion(world, cir.getReturnValue());
+    }
+}
@@ -0,0 +1,24 @@
+package com.kassa.privates.mixin;
+
+import com.kassa.privates.handlers.WorldProtection;
+import net.minecraft.block.BlockState;
+import net.minecraft.fluid.FlowableFluid;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.WorldAccess;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(FlowableFluid.class)
+public abstract class FlowableFluidMixin {
+    @Inject(method = "flow", at = @At("HEAD"), cancellable = true)
+    private void privates$blockFlowIntoZones(WorldAccess world, BlockPos pos, BlockState state, Direction direction,
+                                             FluidState fluidState, CallbackInfo ci) {
+        if (!WorldProtection.canFluidFlow(world, pos, direction)) {
+            ci.cancel();
+        }
+    }
+}
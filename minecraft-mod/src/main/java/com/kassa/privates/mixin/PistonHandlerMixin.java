@@ -0,0 +1,32 @@
+package com.kassa.privates.mixin;
+
+import com.kassa.privates.handlers.WorldProtection;
+import net.minecraft.block.piston.PistonHandler;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.World;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+import java.util.List;
+
+@Mixin(PistonHandler.class)
+public abstract class PistonHandlerMixin {
+    @Shadow @Final private World world;
+    @Shadow @Final private BlockPos posFrom;
+    @Shadow @Final private Direction motionDirection;
+    @Shadow @Final private List<BlockPos> movedBlocks;
+    @Shadow @Final private List<BlockPos> brokenBlocks;
+
+    @Inject(method = "calculatePush", at = @At("RETURN"), cancellable = true)
+    private void privates$blockPushIntoZones(CallbackInfoReturnable<Boolean> cir) {
+        if (cir.getReturnValueZ()
+                && !WorldProtection.canPistonMove(world, posFrom, motionDirection, movedBlocks, brokenBlocks)) {
+            cir.setReturnValue(false);
+        }
+    }
+}
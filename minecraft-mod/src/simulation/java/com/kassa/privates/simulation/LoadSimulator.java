@@ -0,0 +1,413 @@
+package com.kassa.privates.simulation;
+
+import com.kassa.privates.config.PrivatesConfig;
+import com.kassa.privates.data.DataStorage;
+import com.kassa.privates.data.PrivateManager;
+import com.kassa.privates.data.PrivateZone;
+import com.kassa.privates.handlers.ProtectionPolicy;
+import com.kassa.privates.handlers.ProtectionPolicy.Check;
+import net.minecraft.util.Identifier;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Replays protection checks and webhook ownership transfers against a real {@link PrivateManager}
+ * without a game server. The calling thread plays the server thread: it runs every protection
+ * decision through {@link ProtectionPolicy} and drains the mutation queue every
+ * {@code --events-per-tick} events, while transfer threads submit ownership changes the same way
+ * the webhook handler does.
+ * <p>
+ * Options (all {@code --name=value}): {@code zones}, {@code layout} (UNIFORM or CLUSTERED),
+ * {@code players}, {@code events}, {@code warmup}, {@code locality} (chance that the next event
+ * is next to the player's previous one), {@code events-per-tick}, {@code transfer-threads},
+ * {@code transfers-per-second} (per thread) and {@code trace}. A trace file replaces the synthetic
+ * events; each line is {@code CHECK,playerUuid,world,x,y,z}, e.g.
+ * {@code BREAK_BLOCK,0d6c...,minecraft:overworld,12,64,-30}.
+ */
+public class LoadSimulator {
+    private static final Check[] CHECKS = Check.values();
+    private static final long TRANSFER_TIMEOUT_SECONDS = 10;
+
+    private final Map<String, String> options;
+    private final Random random = new Random(ZoneFixtures.SEED + 2);
+
+    private Identifier[] worldIds;
+    private UUID[] playerIds;
+    private int[] eventChecks;
+    private int[] eventPlayers;
+    private int[] eventWorlds;
+    private int[] eventX;
+    private int[] eventY;
+    private int[] eventZ;
+
+    private LoadSimulator(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                System.err.println("Ignoring argument " + arg + ", expected --name=value");
+                continue;
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        new LoadSimulator(options).run();
+        System.exit(0);
+    }
+
+    private int intOption(String name, int defaultValue) {
+        return options.containsKey(name) ? Integer.parseInt(options.get(name)) : defaultValue;
+    }
+
+    private double doubleOption(String name, double defaultValue) {
+        return options.containsKey(name) ? Double.parseDouble(options.get(name)) : defaultValue;
+    }
+
+    private void run() throws Exception {
+        int zoneCount = intOption("zones", 100_000);
+        ZoneFixtures.Layout layout = ZoneFixtures.Layout.valueOf(options.getOrDefault("layout", "CLUSTERED"));
+        int eventsPerTick = intOption("events-per-tick", 2_000);
+        int warmup = intOption("warmup", 200_000);
+
+        Path dataDir = Files.createTempDirectory("privates-sim");
+        PrivateManager manager = null;
+        try {
+            List<PrivateZone> zones = ZoneFixtures.generate(zoneCount, layout);
+            PrivatesConfig config = new PrivatesConfig();
+            DataStorage storage = new DataStorage(dataDir, config);
+            storage.saveZones(zones);
+
+            manager = new PrivateManager(storage, config);
+            manager.startLoading();
+            manager.awaitReady();
+
+            worldIds = new Identifier[ZoneFixtures.WORLDS.length];
+            for (int i = 0; i < worldIds.length; i++) {
+                worldIds[i] = Identifier.of(ZoneFixtures.WORLDS[i]);
+            }
+
+            String trace = options.get("trace");
+            if (trace != null) {
+                loadTrace(Path.of(trace));
+            } else {
+                generateTrace(zones, intOption("players", 200), warmup + intOption("events", 2_000_000),
+                    doubleOption("locality", 0.9));
+            }
+            warmup = Math.min(warmup, eventChecks.length / 2);
+
+            System.out.println("Simulating " + (eventChecks.length - warmup) + " events from " + playerIds.length
+                + " players over " + zoneCount + " " + layout + " zones (" + warmup + " warm-up events)");
+
+            ProtectionPolicy policy = new ProtectionPolicy(manager);
+            replay(policy, manager, 0, warmup, eventsPerTick, null);
+
+            TransferLoad transfers = new TransferLoad(manager, zones, intOption("transfer-threads", 4),
+                doubleOption("transfers-per-second", 50));
+            transfers.start();
+
+            long[] latencies = new long[eventChecks.length - warmup];
+            com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long gcBefore = gcCount();
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            int denied = replay(policy, manager, warmup, eventChecks.length, eventsPerTick, latencies);
+            long elapsed = System.nanoTime() - start;
+            long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            long gcs = gcCount() - gcBefore;
+
+            transfers.stop();
+            report(latencies, denied, elapsed, allocated, gcs, transfers);
+        } finally {
+            if (manager != null) {
+                manager.shutdown();
+            }
+            deleteRecursively(dataDir);
+        }
+    }
+
+    private int replay(ProtectionPolicy policy, PrivateManager manager, int from, int to, int eventsPerTick,
+                       long[] latencies) {
+        int denied = 0;
+        for (int i = from; i < to; i++) {
+            long start = System.nanoTime();
+            PrivateZone zone = policy.check(playerIds[eventPlayers[i]], worldIds[eventWorlds[i]],
+                eventX[i], eventY[i], eventZ[i], CHECKS[eventChecks[i]]);
+            if (latencies != null) {
+                latencies[i - from] = System.nanoTime() - start;
+            }
+            if (zone != null) {
+                denied++;
+            }
+            if ((i + 1) % eventsPerTick == 0) {
+                manager.getMutationQueue().drain();
+            }
+        }
+        return denied;
+    }
+
+    /**
+     * Players start inside a random zone and then mostly wander a few blocks at a time, with the
+     * occasional jump (teleport, new area) to another zone or anywhere in the world.
+     */
+    private void generateTrace(List<PrivateZone> zones, int players, int events, double locality) {
+        playerIds = new UUID[players];
+        int[][] positions = new int[players][];
+        for (int p = 0; p < players; p++) {
+            // Most players own some zones so that both allow and deny decisions show up.
+            PrivateZone home = zones.get(random.nextInt(zones.size()));
+            playerIds[p] = UUID.fromString(home.getOwnerUuid());
+            positions[p] = pointIn(home);
+        }
+
+        allocateEvents(events);
+        int extent = (int) Math.sqrt((double) zones.size()) * 64;
+        for (int i = 0; i < events; i++) {
+            int p = random.nextInt(players);
+            int[] position = positions[p];
+            if (random.nextDouble() < locality) {
+                position[1] += random.nextInt(9) - 4;
+                position[2] = Math.max(-64, Math.min(319, position[2] + random.nextInt(5) - 2));
+                position[3] += random.nextInt(9) - 4;
+            } else if (random.nextBoolean()) {
+                positions[p] = position = pointIn(zones.get(random.nextInt(zones.size())));
+            } else {
+                position[0] = random.nextInt(worldIds.length);
+                position[1] = random.nextInt(2 * extent + 1) - extent;
+                position[3] = random.nextInt(2 * extent + 1) - extent;
+            }
+
+            eventChecks[i] = random.nextInt(CHECKS.length);
+            eventPlayers[i] = p;
+            eventWorlds[i] = position[0];
+            eventX[i] = position[1];
+            eventY[i] = position[2];
+            eventZ[i] = position[3];
+        }
+    }
+
+    private int[] pointIn(PrivateZone zone) {
+        return new int[] {
+            worldIndex(zone.getWorldName()),
+            zone.getMinX() + random.nextInt(zone.getMaxX() - zone.getMinX() + 1),
+            zone.getMinY() + random.nextInt(zone.getMaxY() - zone.getMinY() + 1),
+            zone.getMinZ() + random.nextInt(zone.getMaxZ() - zone.getMinZ() + 1)
+        };
+    }
+
+    private void loadTrace(Path file) throws IOException {
+        List<String[]> lines = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    lines.add(line.split(","));
+                }
+            }
+        }
+
+        Map<String, Integer> players = new HashMap<>();
+        allocateEvents(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            String[] fields = lines.get(i);
+            if (fields.length != 6) {
+                throw new IOException("Line " + (i + 1) + " of " + file + " should have 6 fields");
+            }
+            eventChecks[i] = Check.valueOf(fields[0].trim()).ordinal();
+            eventPlayers[i] = players.computeIfAbsent(fields[1].trim(), uuid -> players.size());
+            eventWorlds[i] = worldIndex(fields[2].trim());
+            eventX[i] = Integer.parseInt(fields[3].trim());
+            eventY[i] = Integer.parseInt(fields[4].trim());
+            eventZ[i] = Integer.parseInt(fields[5].trim());
+        }
+
+        playerIds = new UUID[players.size()];
+        players.forEach((uuid, index) -> playerIds[index] = UUID.fromString(uuid));
+    }
+
+    private void allocateEvents(int events) {
+        eventChecks = new int[events];
+        eventPlayers = new int[events];
+        eventWorlds = new int[events];
+        eventX = new int[events];
+        eventY = new int[events];
+        eventZ = new int[events];
+    }
+
+    private int worldIndex(String world) {
+        for (int i = 0; i < ZoneFixtures.WORLDS.length; i++) {
+            if (ZoneFixtures.WORLDS[i].equals(world)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown world " + world);
+    }
+
+    private static void report(long[] latencies, int denied, long elapsedNanos, long allocatedBytes,
+                               long gcs, TransferLoad transfers) {
+        Arrays.sort(latencies);
+        double seconds = elapsedNanos / 1e9;
+        int events = latencies.length;
+
+        System.out.println("=== Protection decisions ===");
+        System.out.printf("events: %d in %.2f s (%.0f events/s), denied %.1f%%%n",
+            events, seconds, events / seconds, 100.0 * denied / Math.max(1, events));
+        System.out.printf("latency: p50 %s, p99 %s, p99.9 %s, max %s%n",
+            micros(percentile(latencies, 0.50)), micros(percentile(latencies, 0.99)),
+            micros(percentile(latencies, 0.999)), micros(latencies.length == 0 ? 0 : latencies[latencies.length - 1]));
+        System.out.printf("allocation (decision thread): %.1f MB/s, %.1f bytes/event, %d GCs%n",
+            allocatedBytes / seconds / (1024 * 1024), (double) allocatedBytes / Math.max(1, events), gcs);
+
+        long[] transferLatencies = transfers.latencies();
+        Arrays.sort(transferLatencies);
+        System.out.println("=== Webhook transfers ===");
+        System.out.printf("transfers: %d applied, %d failed or timed out (%.0f/s)%n",
+            transferLatencies.length, transfers.failures.get(), transferLatencies.length / seconds);
+        System.out.printf("submit-to-applied latency: p50 %s, p99 %s%n",
+            millis(percentile(transferLatencies, 0.50)), millis(percentile(transferLatencies, 0.99)));
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static String micros(long nanos) {
+        return String.format("%.2f us", nanos / 1e3);
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f ms", nanos / 1e6);
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Threads that submit single ownership changes through the mutation queue at a fixed rate,
+     * each with a unique event id and an increasing chain position, like the webhook handler.
+     */
+    private static class TransferLoad {
+        private static final AtomicLong NEXT_EVENT = new AtomicLong();
+
+        private final PrivateManager manager;
+        private final List<PrivateZone> zones;
+        private final Thread[] threads;
+        private final long intervalNanos;
+        private final List<Long> latencies = new ArrayList<>();
+        private final AtomicLong failures = new AtomicLong();
+        private volatile boolean running;
+
+        TransferLoad(PrivateManager manager, List<PrivateZone> zones, int threadCount, double perSecond) {
+            this.manager = manager;
+            this.zones = zones;
+            this.threads = new Thread[perSecond > 0 ? threadCount : 0];
+            this.intervalNanos = perSecond > 0 ? (long) (1e9 / perSecond) : 0;
+        }
+
+        void start() {
+            running = true;
+            for (int t = 0; t < threads.length; t++) {
+                Random random = new Random(ZoneFixtures.SEED + 100 + t);
+                threads[t] = new Thread(() -> transferLoop(random), "Privates-Sim-Transfer-" + t);
+                threads[t].setDaemon(true);
+                threads[t].start();
+            }
+        }
+
+        /**
+         * Stops submitting and keeps draining the queue, as the server tick would, until every
+         * in-flight transfer has been answered.
+         */
+        void stop() throws InterruptedException {
+            running = false;
+            for (Thread thread : threads) {
+                while (thread.isAlive()) {
+                    manager.getMutationQueue().drain();
+                    thread.join(1);
+                }
+            }
+        }
+
+        synchronized long[] latencies() {
+            long[] result = new long[latencies.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = latencies.get(i);
+            }
+            return result;
+        }
+
+        private void transferLoop(Random random) {
+            long nextAt = System.nanoTime();
+            while (running) {
+                long event = NEXT_EVENT.incrementAndGet();
+                String zoneId = zones.get(random.nextInt(zones.size())).getId();
+                String newOwner = new UUID(random.nextLong(), random.nextLong()).toString();
+                PrivateManager.OwnerChange change = new PrivateManager.OwnerChange(zoneId, newOwner, "New Owner",
+                    "sim:" + event, event, 0L);
+
+                long start = System.nanoTime();
+                try {
+                    PrivateManager.OwnerChangeResult result = manager.getMutationQueue()
+                        .submit(() -> manager.changeZoneOwners(List.of(change))[0])
+                        .get(TRANSFER_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                    if (result.isSuccess()) {
+                        synchronized (this) {
+                            latencies.add(System.nanoTime() - start);
+                        }
+                    } else {
+                        failures.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                }
+
+                nextAt += intervalNanos;
+                long sleep = nextAt - System.nanoTime();
+                if (sleep > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(sleep);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+}
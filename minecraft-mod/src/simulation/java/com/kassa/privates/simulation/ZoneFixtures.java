@@ -0,0 +1,122 @@
+package com.kassa.privates.simulation;
+
+import com.kassa.privates.data.PrivateZone;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Deterministic synthetic zone sets shared by the benchmarks and the load simulator. Zones
+ * are spread over three worlds (70% overworld, 20% nether, 10% end) and owned by one player
+ * per ten zones on average.
+ */
+public final class ZoneFixtures {
+    public static final String[] WORLDS = {"minecraft:overworld", "minecraft:the_nether", "minecraft:the_end"};
+    public static final long SEED = 42L;
+
+    private static final int MIN_SIZE = 8;
+    private static final int MAX_SIZE = 48;
+    private static final int ZONES_PER_CLUSTER = 500;
+    private static final int CLUSTER_SPREAD = 2048;
+
+    public enum Layout {
+        /** Zones scattered over a square whose area grows with the zone count. */
+        UNIFORM,
+        /** Zones packed around a few spawn-like hotspots, one per {@value #ZONES_PER_CLUSTER} zones. */
+        CLUSTERED
+    }
+
+    private ZoneFixtures() {
+    }
+
+    public static List<PrivateZone> generate(int count, Layout layout) {
+        Random random = new Random(SEED);
+        String[] owners = owners(Math.max(1, count / 10), random);
+        int extent = (int) Math.sqrt((double) count) * 64;
+        int[][] clusters = clusters(Math.max(1, count / ZONES_PER_CLUSTER), extent, random);
+
+        List<PrivateZone> zones = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int x;
+            int z;
+            if (layout == Layout.CLUSTERED) {
+                int[] center = clusters[random.nextInt(clusters.length)];
+                x = center[0] + (int) (random.nextGaussian() * CLUSTER_SPREAD / 4);
+                z = center[1] + (int) (random.nextGaussian() * CLUSTER_SPREAD / 4);
+            } else {
+                x = random.nextInt(2 * extent + 1) - extent;
+                z = random.nextInt(2 * extent + 1) - extent;
+            }
+            int y = random.nextInt(128) - 32;
+            int sizeX = MIN_SIZE + random.nextInt(MAX_SIZE - MIN_SIZE);
+            int sizeY = MIN_SIZE + random.nextInt(MAX_SIZE - MIN_SIZE);
+            int sizeZ = MIN_SIZE + random.nextInt(MAX_SIZE - MIN_SIZE);
+            String owner = owners[random.nextInt(owners.length)];
+
+            zones.add(new PrivateZone(new UUID(random.nextLong(), random.nextLong()).toString(), "zone-" + i,
+                owner, "Player" + owner.substring(0, 8), world(random),
+                x, y, z, x + sizeX, y + sizeY, z + sizeZ, 1_700_000_000_000L + i));
+        }
+        return zones;
+    }
+
+    /**
+     * Probe points of which roughly half fall inside some zone and half are random misses.
+     */
+    public static int[][] probes(List<PrivateZone> zones, int count) {
+        Random random = new Random(SEED + 1);
+        int extent = (int) Math.sqrt((double) zones.size()) * 64;
+        int[][] probes = new int[count][];
+        for (int i = 0; i < count; i++) {
+            if (random.nextBoolean()) {
+                PrivateZone zone = zones.get(random.nextInt(zones.size()));
+                probes[i] = new int[] {
+                    indexOf(zone.getWorldName()),
+                    zone.getMinX() + random.nextInt(zone.getMaxX() - zone.getMinX() + 1),
+                    zone.getMinY() + random.nextInt(zone.getMaxY() - zone.getMinY() + 1),
+                    zone.getMinZ() + random.nextInt(zone.getMaxZ() - zone.getMinZ() + 1)
+                };
+            } else {
+                probes[i] = new int[] {
+                    random.nextInt(WORLDS.length),
+                    random.nextInt(2 * extent + 1) - extent,
+                    random.nextInt(128) - 32,
+                    random.nextInt(2 * extent + 1) - extent
+                };
+            }
+        }
+        return probes;
+    }
+
+    private static String[] owners(int count, Random random) {
+        String[] owners = new String[count];
+        for (int i = 0; i < count; i++) {
+            owners[i] = new UUID(random.nextLong(), random.nextLong()).toString();
+        }
+        return owners;
+    }
+
+    private static int[][] clusters(int count, int extent, Random random) {
+        int[][] clusters = new int[count][];
+        for (int i = 0; i < count; i++) {
+            clusters[i] = new int[] {random.nextInt(2 * extent + 1) - extent, random.nextInt(2 * extent + 1) - extent};
+        }
+        return clusters;
+    }
+
+    private static String world(Random random) {
+        int roll = random.nextInt(10);
+        return roll < 7 ? WORLDS[0] : roll < 9 ? WORLDS[1] : WORLDS[2];
+    }
+
+    private static int indexOf(String world) {
+        for (int i = 0; i < WORLDS.length; i++) {
+            if (WORLDS[i].equals(world)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+}
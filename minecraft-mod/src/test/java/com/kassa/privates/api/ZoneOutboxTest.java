@@ -0,0 +1,195 @@
+package com.kassa.privates.api;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the outbox against a local stand-in for the batch endpoint.
+ */
+public class ZoneOutboxTest {
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    public void resendsUndeliveredEntriesAfterRestart() throws Exception {
+        StubBackend backend = new StubBackend();
+        ZoneOutbox crashed = outbox(backend, 5);
+        assertTrue(enqueue(crashed, "zone-a").isSuccess());
+        assertTrue(enqueue(crashed, "zone-b").isSuccess());
+        crashed.shutdown();
+        assertEquals(0, backend.attempts("zone-a"));
+
+        ZoneOutbox restarted = outbox(backend, 5);
+        restarted.start();
+        await(() -> backend.delivered.containsAll(Set.of("zone-a", "zone-b")), "resend after restart");
+        await(() -> !Files.exists(outboxFile()), "outbox file removed once everything is delivered");
+        restarted.shutdown();
+    }
+
+    @Test
+    public void keepsEntriesMissingFromAPartialAck() throws Exception {
+        StubBackend backend = new StubBackend();
+        backend.unanswered.add("zone-slow");
+        ZoneOutbox outbox = outbox(backend, 5);
+        outbox.start();
+        enqueue(outbox, "zone-fast");
+        enqueue(outbox, "zone-slow");
+
+        await(() -> backend.delivered.contains("zone-fast") && backend.attempts("zone-slow") > 0, "first batch");
+        await(() -> pendingInFile().equals(List.of("zone-slow")), "only the unacknowledged entry left on disk");
+
+        backend.unanswered.clear();
+        await(() -> backend.delivered.contains("zone-slow"), "unacknowledged entry resent");
+        await(() -> !Files.exists(outboxFile()), "outbox file removed once everything is delivered");
+        assertEquals(1, backend.attempts("zone-fast"));
+        outbox.shutdown();
+    }
+
+    @Test
+    public void deadLettersAfterMaxRejections() throws Exception {
+        StubBackend backend = new StubBackend();
+        backend.refused.add("zone-bad");
+        ZoneOutbox outbox = outbox(backend, 3);
+        outbox.start();
+        enqueue(outbox, "zone-bad");
+        enqueue(outbox, "zone-good");
+
+        Path deadLetters = dataDir.resolve("outbox.jsonl.dead");
+        await(() -> Files.exists(deadLetters), "dead-letter file written");
+        await(() -> backend.delivered.contains("zone-good"), "good entry delivered");
+        await(() -> !Files.exists(outboxFile()), "outbox file removed once nothing is pending");
+        outbox.shutdown();
+
+        assertEquals(3, backend.attempts("zone-bad"));
+        String deadLettered = Files.readString(deadLetters, StandardCharsets.UTF_8);
+        assertTrue(deadLettered.contains("\"zone-bad\""));
+        assertFalse(deadLettered.contains("\"zone-good\""));
+    }
+
+    @Test
+    public void truncatesTornTailBeforeAppending() throws Exception {
+        StubBackend backend = new StubBackend();
+        ZoneOutbox first = outbox(backend, 5);
+        enqueue(first, "zone-kept");
+        first.shutdown();
+        long completeLength = Files.size(outboxFile());
+        Files.writeString(outboxFile(), "{\"zone\":\"zone-torn\",\"requ", StandardCharsets.UTF_8,
+            StandardOpenOption.APPEND);
+
+        backend.down = true;
+        ZoneOutbox second = outbox(backend, 5);
+        second.start();
+        await(() -> backend.attempts("zone-kept") > 0, "entries loaded");
+        assertEquals(completeLength, Files.size(outboxFile()));
+        enqueue(second, "zone-after");
+        second.shutdown();
+
+        backend.down = false;
+        ZoneOutbox third = outbox(backend, 5);
+        third.start();
+        await(() -> backend.delivered.containsAll(Set.of("zone-kept", "zone-after")), "both entries survive");
+        third.shutdown();
+        assertEquals(0, backend.attempts("zone-torn"));
+    }
+
+    @Test
+    public void keepsDeliveringAfterUnreadableEntries() throws Exception {
+        Files.writeString(outboxFile(), "null\nnot json\n{}\n", StandardCharsets.UTF_8);
+
+        StubBackend backend = new StubBackend();
+        ZoneOutbox outbox = outbox(backend, 5);
+        outbox.start();
+        enqueue(outbox, "zone-new");
+        await(() -> backend.delivered.contains("zone-new"), "delivery after a bad load");
+        outbox.shutdown();
+    }
+
+    private ZoneOutbox outbox(StubBackend backend, int maxRejections) {
+        return new ZoneOutbox(outboxFile(), 10, 10, maxRejections, backend::send);
+    }
+
+    private Path outboxFile() {
+        return dataDir.resolve("outbox.jsonl");
+    }
+
+    private static ApiService.ApiResponse enqueue(ZoneOutbox outbox, String zoneId) throws Exception {
+        return outbox.enqueue(zoneId, new ApiService.ZoneCreateRequest("name", "player", "player-uuid", zoneId))
+            .get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private List<String> pendingInFile() {
+        List<String> zoneIds = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(outboxFile(), StandardCharsets.UTF_8)) {
+                zoneIds.add(line.substring(line.indexOf(":\"") + 2, line.indexOf("\",")));
+            }
+        } catch (IOException e) {
+            return List.of();
+        }
+        return zoneIds;
+    }
+
+    private static void await(BooleanSupplier condition, String what) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Timed out waiting for " + what);
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Stand-in for the batch endpoint. Zones in {@code refused} are reported as refused, zones in
+     * {@code unanswered} are left out of the answer, and while {@code down} no answer comes at all.
+     */
+    private static class StubBackend {
+        private final Set<String> delivered = ConcurrentHashMap.newKeySet();
+        private final Set<String> refused = ConcurrentHashMap.newKeySet();
+        private final Set<String> unanswered = ConcurrentHashMap.newKeySet();
+        private final Map<String, Integer> attempts = new ConcurrentHashMap<>();
+        private volatile boolean down;
+
+        CompletableFuture<ApiService.BatchOutcome> send(List<ApiService.ZoneCreateRequest> requests) {
+            ApiService.BatchOutcome outcome = new ApiService.BatchOutcome();
+            for (ApiService.ZoneCreateRequest request : requests) {
+                String zoneId = request.getZoneUuid();
+                attempts.merge(zoneId, 1, Integer::sum);
+                if (down || unanswered.contains(zoneId)) {
+                    continue;
+                }
+                if (refused.contains(zoneId)) {
+                    outcome.getRejected().add(zoneId);
+                } else {
+                    delivered.add(zoneId);
+                    outcome.getDelivered().add(zoneId);
+                }
+            }
+            return CompletableFuture.completedFuture(outcome);
+        }
+
+        int attempts(String zoneId) {
+            return attempts.getOrDefault(zoneId, 0);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.kassa.privates.data;
+
+import com.kassa.privates.config.PrivatesConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DataStorageJournalTest {
+    private static final String OWNER = "6f1c1b53-3f4e-4a55-9a55-2a8a4bd0c001";
+    private static final String BUYER = "6f1c1b53-3f4e-4a55-9a55-2a8a4bd0c002";
+    private static final String MEMBER = "6f1c1b53-3f4e-4a55-9a55-2a8a4bd0c003";
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    public void replaysEveryJournaledMutation() {
+        PrivateZone first = zone("first", 0);
+        PrivateZone second = zone("second", 100);
+        PrivateZone third = zone("third", 200);
+
+        DataStorage storage = storage();
+        storage.append(ZoneMutation.create(first));
+        storage.append(ZoneMutation.create(second));
+        storage.append(ZoneMutation.create(third));
+        storage.append(ZoneMutation.members(second.withMember(MEMBER, "member", ZonePermission.ALL)));
+        storage.append(ZoneMutation.ownerChange(first.withOwner(BUYER, "buyer"), "0xabc:1", 10L, 1L));
+        storage.append(ZoneMutation.delete(third.getId()));
+        storage.flushJournal();
+
+        Map<String, PrivateZone> loaded = byId(storage().loadZones());
+        assertEquals(2, loaded.size());
+        assertEquals(BUYER, loaded.get("first").getOwnerUuid());
+        assertEquals("buyer", loaded.get("first").getOwnerName());
+        assertEquals(1, loaded.get("second").getMembers().size());
+        assertTrue(loaded.get("second").isAllowed(UUID.fromString(MEMBER), ZonePermission.ALL));
+        assertNull(loaded.get("third"));
+    }
+
+    @Test
+    public void membersSurviveOwnershipChangeOnReplay() {
+        PrivateZone zone = zone("sold", 0).withMember(MEMBER, "member", ZonePermission.BREAK.bit());
+
+        DataStorage storage = storage();
+        storage.append(ZoneMutation.create(zone));
+        storage.append(ZoneMutation.ownerChange(zone.withOwner(BUYER, "buyer")));
+        storage.flushJournal();
+
+        PrivateZone loaded = byId(storage().loadZones()).get("sold");
+        assertEquals(BUYER, loaded.getOwnerUuid());
+        assertEquals(1, loaded.getMembers().size());
+        assertTrue(loaded.isAllowed(UUID.fromString(MEMBER), ZonePermission.BREAK.bit()));
+        assertFalse(loaded.isAllowed(UUID.fromString(MEMBER), ZonePermission.PLACE.bit()));
+    }
+
+    @Test
+    public void truncatesTornLastRecord() throws IOException {
+        DataStorage storage = storage();
+        storage.append(ZoneMutation.create(zone("kept", 0)));
+        storage.flushJournal();
+        Path journal = dataDir.resolve("zones.journal");
+        long completeLength = Files.size(journal);
+
+        Files.writeString(journal, "{\"op\":\"create\",\"zone\":{\"id\":\"torn\",\"na", StandardCharsets.UTF_8,
+            StandardOpenOption.APPEND);
+
+        Map<String, PrivateZone> loaded = byId(storage().loadZones());
+        assertEquals(1, loaded.size());
+        assertTrue(loaded.containsKey("kept"));
+        assertEquals(completeLength, Files.size(journal));
+
+        DataStorage reopened = storage();
+        reopened.append(ZoneMutation.create(zone("after", 100)));
+        reopened.flushJournal();
+        loaded = byId(storage().loadZones());
+        assertEquals(2, loaded.size());
+        assertTrue(loaded.containsKey("after"));
+    }
+
+    @Test
+    public void skipsInvalidRecords() throws IOException {
+        Path journal = dataDir.resolve("zones.journal");
+        Files.writeString(journal, "not json\nnull\n{\"op\":\"owner\"}\n{\"op\":\"create\"}\n", StandardCharsets.UTF_8);
+
+        DataStorage storage = storage();
+        storage.append(ZoneMutation.create(zone("valid", 0)));
+        storage.flushJournal();
+
+        Map<String, PrivateZone> loaded = byId(storage().loadZones());
+        assertEquals(1, loaded.size());
+        assertTrue(loaded.containsKey("valid"));
+    }
+
+    private DataStorage storage() {
+        return new DataStorage(dataDir, new PrivatesConfig());
+    }
+
+    private static PrivateZone zone(String id, int offset) {
+        return new PrivateZone(id, id, OWNER, "owner", "minecraft:overworld",
+            offset, 0, offset, offset + 15, 64, offset + 15, 1_700_000_000_000L);
+    }
+
+    private static Map<String, PrivateZone> byId(List<PrivateZone> zones) {
+        Map<String, PrivateZone> byId = new HashMap<>();
+        for (PrivateZone zone : zones) {
+            byId.put(zone.getId(), zone);
+        }
+        return byId;
+    }
+}
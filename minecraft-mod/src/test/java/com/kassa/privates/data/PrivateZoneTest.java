@@ -0,0 +1,77 @@
+package com.kassa.privates.data;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PrivateZoneTest {
+    private static final UUID OWNER = UUID.fromString("6f1c1b53-3f4e-4a55-9a55-2a8a4bd0c001");
+    private static final UUID BUYER = UUID.fromString("6f1c1b53-3f4e-4a55-9a55-2a8a4bd0c002");
+    private static final UUID BUILDER = UUID.fromString("6f1c1b53-3f4e-4a55-9a55-2a8a4bd0c003");
+    private static final UUID GUEST = UUID.fromString("6f1c1b53-3f4e-4a55-9a55-2a8a4bd0c004");
+    private static final int BREAK_AND_PLACE = ZonePermission.BREAK.bit() | ZonePermission.PLACE.bit();
+
+    @Test
+    public void checksEveryRequestedPermissionBit() {
+        PrivateZone zone = zone()
+            .withMember(BUILDER.toString(), "builder", BREAK_AND_PLACE)
+            .withMember(GUEST.toString(), "guest", ZonePermission.INTERACT.bit());
+
+        assertTrue(zone.isAllowed(OWNER, ZonePermission.ALL));
+        assertTrue(zone.isAllowed(BUILDER, ZonePermission.BREAK.bit()));
+        assertTrue(zone.isAllowed(BUILDER, BREAK_AND_PLACE));
+        assertFalse(zone.isAllowed(BUILDER, BREAK_AND_PLACE | ZonePermission.CONTAINERS.bit()));
+        assertTrue(zone.isAllowed(GUEST, ZonePermission.INTERACT.bit()));
+        assertFalse(zone.isAllowed(GUEST, ZonePermission.BREAK.bit()));
+        assertFalse(zone.isAllowed(BUYER, ZonePermission.INTERACT.bit()));
+    }
+
+    @Test
+    public void regrantingReplacesAndNoneRemoves() {
+        PrivateZone zone = zone().withMember(BUILDER.toString(), "builder", BREAK_AND_PLACE);
+
+        PrivateZone downgraded = zone.withMember(BUILDER.toString(), "builder", ZonePermission.INTERACT.bit());
+        assertEquals(1, downgraded.getMembers().size());
+        assertFalse(downgraded.isAllowed(BUILDER, ZonePermission.BREAK.bit()));
+        assertTrue(zone.isAllowed(BUILDER, ZonePermission.BREAK.bit()));
+
+        PrivateZone removed = downgraded.withMember(BUILDER.toString(), "builder", ZonePermission.NONE);
+        assertTrue(removed.getMembers().isEmpty());
+        assertFalse(removed.isAllowed(BUILDER, ZonePermission.INTERACT.bit()));
+    }
+
+    @Test
+    public void membersSurviveOwnershipChange() {
+        PrivateZone sold = zone()
+            .withMember(BUILDER.toString(), "builder", BREAK_AND_PLACE)
+            .withOwner(BUYER.toString(), "buyer");
+
+        assertTrue(sold.isAllowed(BUYER, ZonePermission.ALL));
+        assertFalse(sold.isAllowed(OWNER, ZonePermission.INTERACT.bit()));
+        assertEquals(1, sold.getMembers().size());
+        assertTrue(sold.isAllowed(BUILDER, BREAK_AND_PLACE));
+    }
+
+    @Test
+    public void gsonLoadedZonesKeepTheirFlags() {
+        Gson gson = new GsonBuilder().registerTypeAdapterFactory(PrivateZone.TYPE_ADAPTER_FACTORY).create();
+        PrivateZone zone = zone().withMember(BUILDER.toString(), "builder", BREAK_AND_PLACE);
+
+        PrivateZone loaded = gson.fromJson(gson.toJson(zone), PrivateZone.class);
+
+        assertEquals(1, loaded.getMembers().size());
+        assertTrue(loaded.isAllowed(BUILDER, BREAK_AND_PLACE));
+        assertFalse(loaded.isAllowed(BUILDER, ZonePermission.CONTAINERS.bit()));
+    }
+
+    private static PrivateZone zone() {
+        return new PrivateZone("zone", "zone", OWNER.toString(), "owner", "minecraft:overworld",
+            0, 0, 0, 15, 64, 15, 0L);
+    }
+}
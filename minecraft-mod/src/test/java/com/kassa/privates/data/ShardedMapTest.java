@@ -0,0 +1,61 @@
+package com.kassa.privates.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ShardedMapTest {
+    @Test
+    public void editsMatchAHashMapAndLeaveTheBaseUnchanged() {
+        Random random = new Random(6);
+        ShardedMap<Integer, String> map = ShardedMap.empty();
+        Map<Integer, String> expected = new HashMap<>();
+
+        for (int round = 0; round < 50; round++) {
+            ShardedMap<Integer, String> base = map;
+            Map<Integer, String> baseExpected = new HashMap<>(expected);
+
+            ShardedMap.Editor<Integer, String> editor = map.edit();
+            for (int i = 0; i < 200; i++) {
+                int key = random.nextInt(2000);
+                if (random.nextInt(3) == 0) {
+                    editor.remove(key);
+                    expected.remove(key);
+                } else {
+                    String value = "v" + round + "-" + i;
+                    editor.put(key, value);
+                    expected.put(key, value);
+                }
+                assertEquals(expected.get(key), editor.get(key));
+            }
+            map = editor.build();
+
+            assertMatches(expected, map);
+            assertMatches(baseExpected, base);
+        }
+    }
+
+    @Test
+    public void editorCannotBeReusedAfterBuild() {
+        ShardedMap.Editor<String, String> editor = ShardedMap.<String, String>empty().edit();
+        editor.put("a", "1");
+        editor.build();
+
+        assertThrows(IllegalStateException.class, editor::build);
+        assertThrows(IllegalStateException.class, () -> editor.put("b", "2"));
+    }
+
+    private static void assertMatches(Map<Integer, String> expected, ShardedMap<Integer, String> map) {
+        assertEquals(expected.size(), map.size());
+        assertEquals(new HashSet<>(expected.values()), new HashSet<>(map.values()));
+        for (int key = 0; key < 2000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.kassa.privates.data;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ZoneBinaryFormatTest {
+    private static final UUID OWNER = UUID.fromString("6f1c1b53-3f4e-4a55-9a55-2a8a4bd0c001");
+    private static final UUID MEMBER = UUID.fromString("6f1c1b53-3f4e-4a55-9a55-2a8a4bd0c002");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void readsVersionOneFiles() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0x505A4E42);
+        out.writeInt(1);
+        out.writeInt(1);
+        out.writeUTF("minecraft:overworld");
+        out.writeInt(1);
+        out.writeByte(0);
+        out.writeLong(OWNER.getMostSignificantBits());
+        out.writeLong(OWNER.getLeastSignificantBits());
+        out.writeInt(1);
+        out.writeBoolean(true);
+        out.writeUTF("owner");
+        out.writeInt(1);
+        out.writeByte(1);
+        out.writeUTF("legacy-id");
+        out.writeUTF("base");
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeInt(-10);
+        out.writeInt(-64);
+        out.writeInt(20);
+        out.writeInt(15);
+        out.writeInt(320);
+        out.writeInt(35);
+        out.writeLong(1_700_000_000_000L);
+        out.flush();
+
+        List<PrivateZone> zones = ZoneBinaryFormat.read(new ByteArrayInputStream(bytes.toByteArray()));
+
+        assertEquals(1, zones.size());
+        PrivateZone zone = zones.get(0);
+        assertEquals("legacy-id", zone.getId());
+        assertEquals("base", zone.getName());
+        assertEquals(OWNER.toString(), zone.getOwnerUuid());
+        assertEquals("owner", zone.getOwnerName());
+        assertEquals("minecraft:overworld", zone.getWorldName());
+        assertEquals(-10, zone.getMinX());
+        assertEquals(-64, zone.getMinY());
+        assertEquals(20, zone.getMinZ());
+        assertEquals(15, zone.getMaxX());
+        assertEquals(320, zone.getMaxY());
+        assertEquals(35, zone.getMaxZ());
+        assertEquals(1_700_000_000_000L, zone.getCreatedAt());
+        assertTrue(zone.getMembers().isEmpty());
+    }
+
+    @Test
+    public void roundTripsCurrentVersion() throws IOException {
+        List<PrivateZone> zones = List.of(
+            new PrivateZone(UUID.randomUUID().toString(), "with members", OWNER.toString(), "owner",
+                "minecraft:overworld", 0, -64, 0, 31, 320, 31, 1L)
+                .withMember(MEMBER.toString(), "member", ZonePermission.ALL)
+                .withMember("not-a-uuid", null, ZonePermission.INTERACT.bit()),
+            new PrivateZone("plain-id", "no owner name", "offline-owner", null,
+                "minecraft:the_nether", -100, 0, -100, -50, 128, -50, 2L));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ZoneBinaryFormat.write(zones, bytes);
+        List<PrivateZone> read = ZoneBinaryFormat.read(new ByteArrayInputStream(bytes.toByteArray()));
+
+        assertEquals(zones.size(), read.size());
+        for (int i = 0; i < zones.size(); i++) {
+            assertSameZone(zones.get(i), read.get(i));
+        }
+        assertNull(read.get(1).getOwnerName());
+        assertTrue(read.get(0).isAllowed(MEMBER, ZonePermission.ALL));
+    }
+
+    @Test
+    public void rejectsUnknownVersions() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0x505A4E42);
+        out.writeInt(99);
+        out.flush();
+
+        assertThrows(IOException.class, () -> ZoneBinaryFormat.read(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    @Test
+    public void convertsJsonToBinaryAndBack() throws IOException {
+        List<PrivateZone> zones = List.of(
+            new PrivateZone(UUID.randomUUID().toString(), "home", OWNER.toString(), "owner",
+                "minecraft:overworld", 0, -64, 0, 31, 320, 31, 1L)
+                .withMember(MEMBER.toString(), "member", ZonePermission.ALL));
+        Path json = dir.resolve("zones.json");
+        Path binary = dir.resolve("zones" + ZoneBinaryFormat.FILE_EXTENSION);
+        Path back = dir.resolve("back.json");
+        Files.writeString(json, new Gson().toJson(zones));
+
+        ZoneBinaryFormat.convert(json, binary);
+        ZoneBinaryFormat.convert(binary, back);
+
+        assertSameZone(zones.get(0), ZoneBinaryFormat.read(binary).get(0));
+        assertTrue(Files.readString(back).contains("\"home\""));
+        assertFalse(Files.exists(binary.resolveSibling(binary.getFileName() + ".tmp")));
+        assertFalse(Files.exists(back.resolveSibling(back.getFileName() + ".tmp")));
+    }
+
+    @Test
+    public void convertRejectsEmptyAndNullSources() throws IOException {
+        Path target = dir.resolve("zones" + ZoneBinaryFormat.FILE_EXTENSION);
+        for (String content : new String[] {"", "null", "{"}) {
+            Path source = dir.resolve("zones.json");
+            Files.writeString(source, content, StandardCharsets.UTF_8);
+
+            IOException e = assertThrows(IOException.class, () -> ZoneBinaryFormat.convert(source, target));
+            assertTrue(e.getMessage().contains(source.toString()));
+            assertFalse(Files.exists(target));
+        }
+    }
+
+    @Test
+    public void failedConvertLeavesTheExistingTargetInPlace() throws IOException {
+        Path source = dir.resolve("zones.json");
+        Path target = dir.resolve("zones" + ZoneBinaryFormat.FILE_EXTENSION);
+        Files.writeString(source, "[]", StandardCharsets.UTF_8);
+        ZoneBinaryFormat.convert(source, target);
+        byte[] before = Files.readAllBytes(target);
+
+        Files.writeString(source, "null", StandardCharsets.UTF_8);
+        assertThrows(IOException.class, () -> ZoneBinaryFormat.convert(source, target));
+
+        assertTrue(Arrays.equals(before, Files.readAllBytes(target)));
+    }
+
+    private static void assertSameZone(PrivateZone expected, PrivateZone actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getOwnerUuid(), actual.getOwnerUuid());
+        assertEquals(expected.getOwnerName(), actual.getOwnerName());
+        assertEquals(expected.getWorldName(), actual.getWorldName());
+        assertEquals(expected.getMinX(), actual.getMinX());
+        assertEquals(expected.getMinY(), actual.getMinY());
+        assertEquals(expected.getMinZ(), actual.getMinZ());
+        assertEquals(expected.getMaxX(), actual.getMaxX());
+        assertEquals(expected.getMaxY(), actual.getMaxY());
+        assertEquals(expected.getMaxZ(), actual.getMaxZ());
+        assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+        assertEquals(expected.getMembers().size(), actual.getMembers().size());
+        for (int i = 0; i < expected.getMembers().size(); i++) {
+            ZoneMember expectedMember = expected.getMembers().get(i);
+            ZoneMember actualMember = actual.getMembers().get(i);
+            assertEquals(expectedMember.getUuid(), actualMember.getUuid());
+            assertEquals(expectedMember.getName(), actualMember.getName());
+            assertEquals(expectedMember.getFlags(), actualMember.getFlags());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.kassa.privates.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Compares the packed, branch-free bounds scans with the plain {@link PrivateZone} checks,
+ * up to the world border and on the exact edges of every zone.
+ */
+public class ZoneCellTest {
+    private static final int BORDER = 29_999_984;
+
+    @Test
+    public void scansMatchZoneChecks() {
+        Random random = new Random(23);
+        List<PrivateZone> zones = randomZones(random, 64);
+        ZoneCell cell = ZoneCell.of(zones);
+
+        for (int i = 0; i < 20_000; i++) {
+            PrivateZone near = zones.get(random.nextInt(zones.size()));
+            int x = nearEdge(random, near.getMinX(), near.getMaxX());
+            int y = nearEdge(random, near.getMinY(), near.getMaxY());
+            int z = nearEdge(random, near.getMinZ(), near.getMaxZ());
+            assertPointMatches(cell, zones, x, y, z);
+
+            int maxX = x + random.nextInt(8);
+            int maxY = y + random.nextInt(8);
+            int maxZ = z + random.nextInt(8);
+            boolean any = false;
+            for (int index = 0; index < zones.size(); index++) {
+                boolean intersects = zones.get(index).intersects(x, y, z, maxX, maxY, maxZ);
+                assertEquals(intersects, cell.intersects(index, x, y, z, maxX, maxY, maxZ));
+                any |= intersects;
+            }
+            assertEquals(any, cell.intersectsAny(x, y, z, maxX, maxY, maxZ));
+        }
+    }
+
+    @Test
+    public void withAndWithoutKeepBoundsAligned() {
+        Random random = new Random(24);
+        List<PrivateZone> zones = new ArrayList<>(randomZones(random, 32));
+        ZoneCell cell = ZoneCell.EMPTY;
+        for (PrivateZone zone : zones) {
+            cell = cell.with(zone);
+        }
+
+        while (!zones.isEmpty()) {
+            PrivateZone removed = zones.remove(random.nextInt(zones.size()));
+            ZoneCell smaller = cell.without(removed);
+            assertEquals(cell.size() - 1, smaller.size());
+            assertSame(smaller, smaller.without(removed));
+            cell = smaller;
+
+            for (int i = 0; i < cell.size(); i++) {
+                assertSame(zones.get(i), cell.get(i));
+                assertEquals(zones.get(i).getMinX(), cell.getMinX(i));
+                assertEquals(zones.get(i).getMinZ(), cell.getMinZ(i));
+            }
+            for (PrivateZone zone : zones) {
+                assertPointMatches(cell, zones, zone.getMaxX(), zone.getMinY(), zone.getMaxZ());
+            }
+            assertPointMatches(cell, zones, removed.getMinX(), removed.getMinY(), removed.getMinZ());
+        }
+        assertSame(ZoneCell.EMPTY, cell);
+    }
+
+    private static void assertPointMatches(ZoneCell cell, List<PrivateZone> zones, int x, int y, int z) {
+        int expected = -1;
+        for (int index = 0; index < zones.size(); index++) {
+            if (zones.get(index).containsBlock(x, y, z)) {
+                expected = index;
+                break;
+            }
+        }
+        assertEquals(expected, cell.indexOf(x, y, z));
+        assertSame(expected < 0 ? null : zones.get(expected), cell.getZoneAt(x, y, z));
+    }
+
+    /**
+     * A coordinate on, just inside or just outside one of the edges, or anywhere in between.
+     */
+    private static int nearEdge(Random random, int min, int max) {
+        return switch (random.nextInt(5)) {
+            case 0 -> min - 1;
+            case 1 -> min;
+            case 2 -> max;
+            case 3 -> max + 1;
+            default -> min + random.nextInt(max - min + 1);
+        };
+    }
+
+    /**
+     * Zones may overlap here; a cell reports the first match, like the index does.
+     */
+    private static List<PrivateZone> randomZones(Random random, int count) {
+        List<PrivateZone> zones = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int minX = random.nextInt(2 * BORDER - 1000) - BORDER;
+            int minY = random.nextInt(384) - 64;
+            int minZ = random.nextInt(2 * BORDER - 1000) - BORDER;
+            if (i % 8 == 0) {
+                minX = i % 16 == 0 ? -BORDER : BORDER - 1000;
+                minZ = -minX - 1000;
+            }
+            zones.add(new PrivateZone("zone-" + i, "zone-" + i, "6f1c1b53-3f4e-4a55-9a55-2a8a4bd0c001", "owner",
+                "minecraft:overworld", minX, minY, minZ,
+                minX + random.nextInt(1000), minY + random.nextInt(64), minZ + random.nextInt(1000), 0L));
+        }
+        return zones;
+    }
+}
@@ -0,0 +1,175 @@
+package com.kassa.privates.data;
+
+import net.minecraft.util.Identifier;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Checks index queries against a brute-force scan of the same zones, including zones
+ * spanning more than 1024 chunks, which the index keeps outside its chunk grid.
+ */
+public class ZoneIndexTest {
+    private static final String OVERWORLD = "minecraft:overworld";
+    private static final String NETHER = "minecraft:the_nether";
+    private static final int RANGE = 4000;
+
+    @Test
+    public void pointLookupsMatchBruteForce() {
+        Random random = new Random(42);
+        List<PrivateZone> zones = randomZones(random, 600);
+
+        assertPointsMatch(ZoneIndex.build(zones), zones, random);
+
+        ZoneIndex incremental = new ZoneIndex();
+        for (PrivateZone zone : zones) {
+            incremental.add(zone);
+        }
+        assertPointsMatch(incremental, zones, random);
+    }
+
+    @Test
+    public void boxQueriesMatchBruteForce() {
+        Random random = new Random(43);
+        List<PrivateZone> zones = randomZones(random, 600);
+
+        assertBoxesMatch(ZoneIndex.build(zones), zones, random);
+    }
+
+    @Test
+    public void editingACopyLeavesTheBaseUnchanged() {
+        Random random = new Random(7);
+        List<PrivateZone> zones = randomZones(random, 400);
+        ZoneIndex base = ZoneIndex.build(zones);
+
+        List<PrivateZone> edited = new ArrayList<>(zones);
+        ZoneIndex copy = base.copy();
+        copy.remove(edited.remove(0));
+        for (int i = 0; i < 100; i++) {
+            copy.remove(edited.remove(random.nextInt(edited.size())));
+        }
+        for (PrivateZone zone : randomZones(random, 50, edited)) {
+            edited.add(zone);
+            copy.add(zone);
+        }
+
+        assertPointsMatch(base, zones, random);
+        assertBoxesMatch(base, zones, random);
+        assertPointsMatch(copy, edited, random);
+        assertBoxesMatch(copy, edited, random);
+    }
+
+    @Test
+    public void findsAndRemovesLargeZones() {
+        PrivateZone large = zone("large", OVERWORLD, -400, 0, -400, 400, 100, 400);
+        PrivateZone small = zone("small", OVERWORLD, 500, 0, 500, 510, 10, 510);
+        ZoneIndex index = ZoneIndex.build(List.of(large, small));
+        assertSame(large, index.getZoneAt(large.getWorldId(), 0, 50, 0));
+        assertSame(large, index.getZoneAt(large.getWorldId(), 400, 100, -400));
+        assertSame(small, index.getZoneAt(small.getWorldId(), 505, 5, 505));
+
+        index.remove(large);
+        assertNull(index.getZoneAt(large.getWorldId(), 0, 50, 0));
+        assertSame(small, index.getZoneAt(small.getWorldId(), 505, 5, 505));
+        assertEquals(List.of(small), index.findIntersecting(small.getWorldId(), -1000, 0, -1000, 1000, 100, 1000));
+    }
+
+    private static void assertPointsMatch(ZoneIndex index, List<PrivateZone> zones, Random random) {
+        for (int i = 0; i < 5000; i++) {
+            Identifier worldId = randomWorld(random);
+            int x = random.nextInt(RANGE) - RANGE / 2;
+            int y = random.nextInt(200) - 20;
+            int z = random.nextInt(RANGE) - RANGE / 2;
+
+            PrivateZone expected = null;
+            for (PrivateZone zone : zones) {
+                if (zone.getWorldId().equals(worldId) && zone.containsBlock(x, y, z)) {
+                    expected = zone;
+                }
+            }
+            assertSame(expected, index.getZoneAt(worldId, x, y, z));
+        }
+    }
+
+    /**
+     * Boxes range from a few blocks to over 1000 blocks wide, so both the per-cell and the
+     * whole-grid query paths run.
+     */
+    private static void assertBoxesMatch(ZoneIndex index, List<PrivateZone> zones, Random random) {
+        for (int i = 0; i < 1000; i++) {
+            Identifier worldId = randomWorld(random);
+            int minX = random.nextInt(RANGE) - RANGE / 2;
+            int minY = random.nextInt(200) - 20;
+            int minZ = random.nextInt(RANGE) - RANGE / 2;
+            int maxX = minX + random.nextInt(random.nextBoolean() ? 64 : 1200);
+            int maxY = minY + random.nextInt(100);
+            int maxZ = minZ + random.nextInt(random.nextBoolean() ? 64 : 1200);
+
+            Set<PrivateZone> expected = new HashSet<>();
+            for (PrivateZone zone : zones) {
+                if (zone.getWorldId().equals(worldId) && zone.intersects(minX, minY, minZ, maxX, maxY, maxZ)) {
+                    expected.add(zone);
+                }
+            }
+            List<PrivateZone> found = index.findIntersecting(worldId, minX, minY, minZ, maxX, maxY, maxZ);
+            assertEquals(expected.size(), found.size(), "duplicate or missing zones");
+            assertEquals(expected, new HashSet<>(found));
+            assertEquals(!expected.isEmpty(), index.intersectsAny(worldId, minX, minY, minZ, maxX, maxY, maxZ));
+        }
+    }
+
+    private static Identifier randomWorld(Random random) {
+        return Identifier.of(random.nextInt(4) == 0 ? NETHER : OVERWORLD);
+    }
+
+    private static List<PrivateZone> randomZones(Random random, int count) {
+        return randomZones(random, count, List.of());
+    }
+
+    /**
+     * Non-overlapping zones, as the manager never lets two zones of a world overlap. The first
+     * zones of a fresh set span well over 1024 chunks.
+     */
+    private static List<PrivateZone> randomZones(Random random, int count, List<PrivateZone> existing) {
+        List<PrivateZone> placed = new ArrayList<>(existing);
+        List<PrivateZone> created = new ArrayList<>();
+        while (created.size() < count) {
+            boolean large = existing.isEmpty() && created.size() < 6;
+            String world = created.size() % 4 == 0 ? NETHER : OVERWORLD;
+            int sizeX = large ? 520 + random.nextInt(300) : 1 + random.nextInt(80);
+            int sizeZ = large ? 520 + random.nextInt(300) : 1 + random.nextInt(80);
+            int minX = random.nextInt(RANGE - sizeX) - RANGE / 2;
+            int minY = random.nextInt(150) - 10;
+            int minZ = random.nextInt(RANGE - sizeZ) - RANGE / 2;
+            PrivateZone zone = zone("zone-" + existing.size() + "-" + created.size(), world,
+                minX, minY, minZ, minX + sizeX - 1, minY + random.nextInt(40), minZ + sizeZ - 1);
+
+            boolean overlaps = false;
+            for (PrivateZone other : placed) {
+                if (other.intersectsWith(zone)) {
+                    overlaps = true;
+                    break;
+                }
+            }
+            if (!overlaps) {
+                placed.add(zone);
+                created.add(zone);
+            }
+        }
+        return created;
+    }
+
+    private static PrivateZone zone(String id, String world, int minX, int minY, int minZ,
+                            int maxX, int maxY, int maxZ) {
+        return new PrivateZone(id, id, "6f1c1b53-3f4e-4a55-9a55-2a8a4bd0c001", "owner", world,
+            minX, minY, minZ, maxX, maxY, maxZ, 0L);
+    }
+}
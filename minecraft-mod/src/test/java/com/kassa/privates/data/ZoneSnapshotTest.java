@@ -0,0 +1,105 @@
+package com.kassa.privates.data;
+
+import net.minecraft.util.Identifier;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ZoneSnapshotTest {
+    private static final String ALICE = "6f1c1b53-3f4e-4a55-9a55-2a8a4bd0c001";
+    private static final String BOB = "6f1c1b53-3f4e-4a55-9a55-2a8a4bd0c002";
+    private static final Identifier OVERWORLD = Identifier.of("minecraft:overworld");
+
+    @Test
+    public void editsProduceANewSnapshotAndLeaveTheBaseUnchanged() {
+        PrivateZone home = zone("home", "Home", ALICE, 0);
+        PrivateZone farm = zone("farm", "farm", ALICE, 100);
+        ZoneSnapshot base = ZoneSnapshot.of(List.of(home, farm), 1);
+
+        PrivateZone sold = farm.withOwner(BOB, "bob");
+        PrivateZone shop = zone("shop", "Shop", BOB, 200);
+        ZoneSnapshot edited = base.edit()
+            .replace(farm, sold)
+            .add(shop)
+            .remove(home)
+            .build(2);
+
+        assertEquals(1, base.getVersion());
+        assertEquals(2, base.size());
+        assertSame(farm, base.getById("farm"));
+        assertEquals(List.of(farm, home), base.getByOwner(ALICE));
+        assertEquals(List.of(), base.getByOwner(BOB));
+        assertSame(home, base.getZoneAt(OVERWORLD, 5, 5, 5));
+        assertSame(farm, base.getByOwnerAndName(ALICE, "farm"));
+
+        assertEquals(2, edited.getVersion());
+        assertEquals(2, edited.size());
+        assertNull(edited.getById("home"));
+        assertSame(sold, edited.getById("farm"));
+        assertEquals(List.of(), edited.getByOwner(ALICE));
+        assertEquals(List.of(sold, shop), edited.getByOwner(BOB));
+        assertNull(edited.getZoneAt(OVERWORLD, 5, 5, 5));
+        assertSame(sold, edited.getZoneAt(OVERWORLD, 105, 5, 105));
+        assertNull(edited.getByOwnerAndName(ALICE, "farm"));
+        assertSame(sold, edited.getByOwnerAndName(BOB, "farm"));
+        assertEquals(2, edited.getZones().size());
+    }
+
+    @Test
+    public void transferKeepsBothZonesWhenTheNewOwnerAlreadyUsesTheName() {
+        PrivateZone bobHome = zone("bob-home", "home", BOB, 0);
+        PrivateZone aliceHome = new PrivateZone("alice-home", "home", ALICE, "alice", "minecraft:overworld",
+            100, 0, 100, 115, 64, 115, 5L);
+        ZoneSnapshot base = ZoneSnapshot.of(List.of(bobHome, aliceHome), 1);
+
+        PrivateZone given = aliceHome.withOwner(BOB, "bob");
+        ZoneSnapshot transferred = base.edit().replace(aliceHome, given).build(2);
+
+        assertSame(bobHome, transferred.getByOwnerAndName(BOB, "home"));
+        assertEquals(List.of(bobHome, given), transferred.getAllByOwnerAndName(BOB, "home"));
+        assertNull(transferred.getByOwnerAndName(ALICE, "home"));
+        assertEquals(List.of(bobHome), base.getAllByOwnerAndName(BOB, "home"));
+        assertSame(aliceHome, base.getByOwnerAndName(ALICE, "home"));
+
+        ZoneSnapshot removed = transferred.edit().remove(bobHome).build(3);
+
+        assertSame(given, removed.getByOwnerAndName(BOB, "home"));
+        assertEquals(List.of(given), removed.getAllByOwnerAndName(BOB, "home"));
+        assertEquals(List.of(bobHome, given), transferred.getAllByOwnerAndName(BOB, "home"));
+
+        ZoneSnapshot empty = removed.edit().remove(given).build(4);
+
+        assertNull(empty.getByOwnerAndName(BOB, "home"));
+        assertEquals(List.of(), empty.getAllByOwnerAndName(BOB, "home"));
+    }
+
+    @Test
+    public void rejectsReplacingAZoneThatIsNotInTheSnapshot() {
+        PrivateZone home = zone("home", "home", ALICE, 0);
+        ZoneSnapshot snapshot = ZoneSnapshot.of(List.of(home), 1);
+        PrivateZone stale = home.withOwner(BOB, "bob");
+
+        assertThrows(IllegalArgumentException.class,
+            () -> snapshot.edit().replace(stale, stale.withOwner(ALICE, "alice")));
+    }
+
+    @Test
+    public void editorCannotBeReusedAfterBuild() {
+        ZoneSnapshot.Editor editor = ZoneSnapshot.EMPTY.edit();
+        editor.add(zone("home", "home", ALICE, 0));
+        editor.build(1);
+
+        assertThrows(IllegalStateException.class, () -> editor.build(2));
+        assertThrows(IllegalStateException.class, () -> editor.add(zone("farm", "farm", ALICE, 100)));
+    }
+
+    private static PrivateZone zone(String id, String name, String owner, int offset) {
+        return new PrivateZone(id, name, owner, "owner", "minecraft:overworld",
+            offset, 0, offset, offset + 15, 64, offset + 15, 0L);
+    }
+}
@@ -0,0 +1,82 @@
+package com.kassa.privates.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HistogramTest {
+    @Test
+    public void bucketBoundsIncreaseAndLineUpWithPowersOfTwo() {
+        Histogram histogram = new Histogram(10, 35);
+
+        assertEquals((35 - 10) * Histogram.SUB_BUCKETS + 2, histogram.bucketCount());
+        assertEquals(1L << 10, histogram.upperBound(0));
+        for (int i = 1; i < histogram.bucketCount() - 1; i++) {
+            assertTrue(histogram.upperBound(i) > histogram.upperBound(i - 1));
+            if ((i - 1) % Histogram.SUB_BUCKETS == Histogram.SUB_BUCKETS - 1) {
+                assertEquals(1, Long.bitCount(histogram.upperBound(i)), "bucket " + i + " ends on a power of two");
+            }
+        }
+        assertEquals(1L << 35, histogram.upperBound(histogram.bucketCount() - 2));
+    }
+
+    @Test
+    public void valuesLandInTheNarrowestBucketThatHoldsThem() {
+        Histogram histogram = new Histogram(10, 35);
+        int last = histogram.bucketCount() - 1;
+        Random random = new Random(19);
+
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextLong(1L << 37);
+            assertBucket(histogram, value, last);
+        }
+        for (int exponent = 0; exponent < 40; exponent++) {
+            long power = 1L << exponent;
+            assertBucket(histogram, power - 1, last);
+            assertBucket(histogram, power, last);
+            assertBucket(histogram, power + 1, last);
+        }
+        assertEquals(0, histogram.indexOf(-5));
+        assertEquals(last, histogram.indexOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void recordsCountsAndSum() {
+        Histogram histogram = new Histogram(3, 6);
+        histogram.record(5);
+        histogram.record(9);
+        histogram.record(10);
+        histogram.record(1000);
+
+        assertEquals(1, histogram.count(0));
+        assertEquals(1, histogram.count(1));
+        assertEquals(1, histogram.count(2));
+        assertEquals(1, histogram.count(histogram.bucketCount() - 1));
+        assertEquals(1024, histogram.sum());
+    }
+
+    @Test
+    public void rejectsRangesTooNarrowForSubBuckets() {
+        assertThrows(IllegalArgumentException.class, () -> new Histogram(2, 10));
+        assertThrows(IllegalArgumentException.class, () -> new Histogram(10, 10));
+    }
+
+    private static void assertBucket(Histogram histogram, long value, int last) {
+        int index = histogram.indexOf(value);
+        if (index == last) {
+            assertTrue(value > histogram.upperBound(last - 1), value + " overflows only past the last bound");
+            return;
+        }
+        long upper = histogram.upperBound(index);
+        assertTrue(value <= upper, value + " <= " + upper);
+        if (index > 0) {
+            long lower = histogram.upperBound(index - 1);
+            assertTrue(value > lower, value + " > " + lower);
+            assertTrue((upper - value) * Histogram.SUB_BUCKETS <= value, value + " within 12.5% of " + upper);
+        }
+    }
+}
@@ -241,6 +241,15 @@ class DatabaseService {
     });
   }
 
+  async getItemByUuidAttribute(collectionId: number, uuid: string) {
+    return this.prisma.item.findFirst({
+      where: {
+        collectionId,
+        attributes: { some: { traitType: "uuid", value: uuid } },
+      },
+    });
+  }
+
   async getItemsByPlayerId(playerPk: number) {
     return this.prisma.item.findMany({
       where: { playerPk },
@@ -1,5 +1,5 @@
 import { Router } from "express";
-import { createItemSchema } from "./schemas";
+import { createItemBatchSchema, createItemSchema } from "./schemas";
 import { dbService } from "./db.service";
 import { z, ZodError } from "zod";
 import { signMintPermit, generateDeadline } from "./utils/signature";
@@ -28,6 +28,24 @@ router.post("/", async (req, res) => {
       return;
     }
 
+    // The zone uuid attribute doubles as an idempotency key: a retried request for an item that
+    // already exists gets the existing item back instead of creating a duplicate
+    const uuid = validatedData.metadata.attributes?.find((attr) => attr.trait_type === "uuid")?.value;
+    if (uuid !== undefined) {
+      const existing = await dbService.getItemByUuidAttribute(validatedData.collectionId, String(uuid));
+      const existingItem = existing ? await dbService.getItemByPk(existing.pk) : null;
+      if (existingItem) {
+        res.status(200).json({
+          ...existingItem,
+          attributes: existingItem.attributes.map((attr) => ({
+            trait_type: attr.traitType,
+            value: attr.value,
+          })),
+        });
+        return;
+      }
+    }
+
     // Create the item
     const item = await dbService.createItem(validatedData);
 
@@ -55,6 +73,62 @@ router.post("/", async (req, res) => {
   }
 });
 
+// Create several items at once. Items carrying a "uuid" attribute that already exists in the
+// collection are reported as "existing" instead of being created again, so senders can retry.
+router.post("/batch", async (req, res) => {
+  try {
+    const { items } = createItemBatchSchema.parse(req.body);
+
+    const results: BatchItemResult[] = [];
+    // Sequential on purpose: createItem picks the next tokenId and is not safe to run in parallel
+    for (const item of items) {
+      const uuid = item.metadata.attributes?.find((attr) => attr.trait_type === "uuid")?.value;
+      const key = uuid === undefined ? null : String(uuid);
+
+      try {
+        if (key !== null) {
+          const existing = await dbService.getItemByUuidAttribute(item.collectionId, key);
+          if (existing) {
+            results.push({ uuid: key, status: "existing", pk: existing.pk });
+            continue;
+          }
+        }
+
+        const game = await dbService.getGameById(item.gameId);
+        if (!game) {
+          results.push({ uuid: key, status: "error", error: `Game with ID ${item.gameId} not found` });
+          continue;
+        }
+
+        const collection = await dbService.getCollectionById(item.collectionId);
+        if (!collection) {
+          results.push({ uuid: key, status: "error", error: `Collection with ID ${item.collectionId} not found` });
+          continue;
+        }
+
+        const created = await dbService.createItem(item);
+        results.push({ uuid: key, status: "created", pk: created.pk });
+      } catch (error: unknown) {
+        console.error("Error creating batch item:", error);
+        results.push({ uuid: key, status: "error", error: "Internal server error" });
+      }
+    }
+
+    res.status(200).json({ results });
+  } catch (error: unknown) {
+    if (error instanceof ZodError) {
+      res.status(400).json({
+        error: "Validation error",
+        details: error.errors,
+      });
+      return;
+    }
+
+    console.error("Error creating item batch:", error);
+    res.status(500).json({ error: "Internal server error" });
+  }
+});
+
 // Get item by ID
 router.get("/:pk", async (req, res) => {
   try {
@@ -147,6 +221,13 @@ router.get("/:pk/mint", async (req, res) => {
     res.status(500).json({ error: "Internal server error" });
   }
 });
+export type BatchItemResult = {
+  uuid: string | null;
+  status: "created" | "existing" | "error";
+  pk?: number;
+  error?: string;
+};
+
 export type MintingResponse = {
   contractAddress: string;
   permitData: {
@@ -26,12 +26,50 @@ const transferEventAbi = parseAbiItem(
 );
 const ZERO_ADDRESS = "0x0000000000000000000000000000000000000000";
 const POLLING_INTERVAL = 10000;
+const OWNERSHIP_BATCH_SIZE = 100;
 const collectionTimeouts = new Map<string, NodeJS.Timeout>();
 
+// eventId (txHash:logIndex) and the chain position let the game server drop redelivered or out-of-order events
+type OwnershipChange = {
+  uuid: string;
+  newOwner: string | null;
+  eventId?: string;
+  blockNumber?: number;
+  logIndex?: number;
+};
+type OwnershipChangeResult = { uuid: string | null; success: boolean; message: string };
+
 /**
- * Process a Transfer event from a collection
+ * Report ownership changes to the game server in batches; errors are logged and skipped
  */
-async function processTransferEvent(collectionAddress: string, from: string, to: string, tokenId: bigint) {
+async function reportOwnershipChanges(changes: OwnershipChange[]) {
+  for (let i = 0; i < changes.length; i += OWNERSHIP_BATCH_SIZE) {
+    const batch = changes.slice(i, i + OWNERSHIP_BATCH_SIZE);
+    try {
+      const response = await axios.post<{ success: boolean; results: OwnershipChangeResult[] }>(
+        `${env.GAME_SERVER_URL}/change-owner/batch`,
+        batch
+      );
+      const failed = response.data.results.filter((result) => !result.success);
+      // 202: the changes are queued on the game server and will still be applied, so don't resend them
+      const verb = response.status === 202 ? "queued" : "applied";
+      console.log(`Game server ${verb} ${batch.length - failed.length}/${batch.length} ownership changes`);
+      for (const result of failed) console.warn(`WARNING: Game server rejected ${result.uuid}: ${result.message}`);
+    } catch (error) {
+      console.error(`Error reporting ${batch.length} ownership changes to the game server:`, error);
+    }
+  }
+}
+
+/**
+ * Process a Transfer event from a collection, returning the ownership change to report to the game
+ */
+async function processTransferEvent(
+  collectionAddress: string,
+  from: string,
+  to: string,
+  tokenId: bigint
+): Promise<OwnershipChange | null> {
   collectionAddress = collectionAddress.toLowerCase();
   from = from.toLowerCase();
   to = to.toLowerCase();
@@ -47,7 +85,7 @@ async function processTransferEvent(collectionAddress: string, from: string, to:
     });
     if (!collection) {
       console.error(`Collection with address ${collectionAddress} not found in database`);
-      return;
+      return null;
     }
 
     let item = await prisma.item.findFirst({
@@ -60,7 +98,7 @@ async function processTransferEvent(collectionAddress: string, from: string, to:
 
     if (!item) {
       console.error(`Item with tokenId ${tokenId} not found in collection ${collectionAddress}`);
-      return;
+      return null;
     }
 
     const maybeSender = await prisma.player.findFirst({
@@ -101,16 +139,7 @@ async function processTransferEvent(collectionAddress: string, from: string, to:
           console.log(
             `Reporting item ${item.pk} UUID: ${maybeItemUuid.value} newOwner: ${receiver.pk}/${receiver.playerId}`
           );
-          // TODO inform the game about mint or transfer: { uuid: item.attributes.find(a => a.trait_type === "uuid")?.value, newOwner: player | null }
-          // on error, log the error and continue
-          const response = await axios.post<{ success: boolean; message: string }>(
-            `${env.GAME_SERVER_URL}/change-owner`,
-            {
-              uuid: maybeItemUuid.value,
-              newOwner: receiver.playerId,
-            }
-          );
-          console.log(`Game server response:`, response.data);
+          return { uuid: maybeItemUuid.value, newOwner: receiver.playerId };
         } else console.warn(`WARNING: Item PK-${item.pk} (tokenId: ${tokenId}) has no UUID`);
       }
     } else {
@@ -127,6 +156,7 @@ async function processTransferEvent(collectionAddress: string, from: string, to:
   } catch (error) {
     console.error(`Error processing mint/transfer event for token ${tokenId}:`, error);
   }
+  return null;
 }
 
 /**
@@ -174,6 +204,7 @@ async function listenToCollection(collectionAddress: string) {
 
     console.log(`Found ${transferEvents.length} transfer events`);
 
+    const ownershipChanges: OwnershipChange[] = [];
     for (const event of transferEvents) {
       const { from, to, tokenId } = event.args as {
         from: string;
@@ -181,9 +212,18 @@ async function listenToCollection(collectionAddress: string) {
         tokenId: bigint;
       };
 
-      await processTransferEvent(collectionAddress, from, to, tokenId);
+      const change = await processTransferEvent(collectionAddress, from, to, tokenId);
+      if (change)
+        ownershipChanges.push({
+          ...change,
+          eventId: `${event.transactionHash}:${event.logIndex}`,
+          blockNumber: Number(event.blockNumber),
+          logIndex: event.logIndex,
+        });
     }
 
+    await reportOwnershipChanges(ownershipChanges);
+
     await prisma.collection.update({
       where: { id: collection.id },
       data: { lastProcessedBlock: currentBlock },
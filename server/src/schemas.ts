@@ -37,6 +37,11 @@ export const createItemSchema = z
     message: "Either playerId or playerAddress must be provided",
   });
 
+// Batch create request schema
+export const createItemBatchSchema = z.object({
+  items: z.array(createItemSchema).min(1).max(100),
+});
+
 // Link Player schema
 export const linkPlayerSchema = z.object({
   playerId: z.string(),